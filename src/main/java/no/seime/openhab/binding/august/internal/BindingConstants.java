@@ -33,4 +33,24 @@ public class BindingConstants {
     public static final String CHANNEL_BATTERY = "battery";
     public static final String CHANNEL_BATTERY_KEYPAD = "batteryKeypad";
     public static final String CHANNEL_UNLOCKED_BY_USER = "unlockedByUser";
+    public static final String CHANNEL_DISCARDED_DUPLICATE_EVENTS = "discardedDuplicateEvents";
+    public static final String CHANNEL_DISCARDED_STALE_EVENTS = "discardedStaleEvents";
+    public static final String CHANNEL_WAKE_UPS_AVOIDED = "wakeUpsAvoided";
+    public static final String CHANNEL_POLL_MODE = "pollMode";
+    public static final String CHANNEL_POLLS_EXECUTED = "pollsExecuted";
+    public static final String CHANNEL_POLLS_SKIPPED = "pollsSkipped";
+    public static final String CHANNEL_COMMAND_ACCEPTED_LATENCY = "commandAcceptedLatency";
+    public static final String CHANNEL_COMMAND_ACCEPTED_LATENCY_P50 = "commandAcceptedLatencyP50";
+    public static final String CHANNEL_COMMAND_ACCEPTED_LATENCY_P95 = "commandAcceptedLatencyP95";
+    public static final String CHANNEL_COMMAND_CONFIRMED_LATENCY = "commandConfirmedLatency";
+    public static final String CHANNEL_COMMAND_CONFIRMED_LATENCY_P50 = "commandConfirmedLatencyP50";
+    public static final String CHANNEL_COMMAND_CONFIRMED_LATENCY_P95 = "commandConfirmedLatencyP95";
+    public static final String CHANNEL_BLUETOOTH_RSSI = "bluetoothRssi";
+    public static final String CHANNEL_BLUETOOTH_RSSI_MIN = "bluetoothRssiMin";
+    public static final String CHANNEL_BLUETOOTH_RSSI_AVG = "bluetoothRssiAvg";
+    public static final String CHANNEL_BLUETOOTH_RSSI_MAX = "bluetoothRssiMax";
+    public static final String CHANNEL_WIFI_RSSI = "wifiRssi";
+    public static final String CHANNEL_WIFI_RSSI_MIN = "wifiRssiMin";
+    public static final String CHANNEL_WIFI_RSSI_AVG = "wifiRssiAvg";
+    public static final String CHANNEL_WIFI_RSSI_MAX = "wifiRssiMax";
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link BoundedExecutor} runs submitted tasks in submission order on top of a shared executor, with at most a
+ * given number of tasks running at the same time. Waiting tasks are queued without blocking any thread.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class BoundedExecutor implements Executor {
+
+    private final Logger logger = LoggerFactory.getLogger(BoundedExecutor.class);
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private final Executor executor;
+
+    private final int maxConcurrent;
+
+    private int running = 0;
+
+    public BoundedExecutor(Executor executor, int maxConcurrent) {
+        this.executor = executor;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+        tasks.add(task);
+        startNext();
+    }
+
+    public synchronized int getQueueSize() {
+        return tasks.size();
+    }
+
+    private synchronized void startNext() {
+        while (running < maxConcurrent && !tasks.isEmpty()) {
+            Runnable task = tasks.poll();
+            running++;
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        logger.warn("Error executing task", e);
+                    } finally {
+                        onTaskDone();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Executor is shut down, queued tasks will never run
+                logger.debug("Executor rejected task, dropping {} queued task(s)", tasks.size() + 1);
+                running--;
+                tasks.clear();
+                throw e;
+            }
+        }
+    }
+
+    private synchronized void onTaskDone() {
+        running--;
+        try {
+            startNext();
+        } catch (RejectedExecutionException e) {
+            // Already logged, nobody to report to
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link CoalescingCommandQueue} sends commands asynchronously, one at a time. A command is held back for a short
+ * coalescing window, and a command submitted while another is still waiting replaces it, so only the latest of a
+ * burst of commands is sent. The next command is not sent before the completion stage returned by the sender for the
+ * previous one has completed.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class CoalescingCommandQueue<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescingCommandQueue.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long coalescingMillis;
+
+    private final Function<T, CompletionStage<?>> sender;
+
+    @Nullable
+    private T pending;
+
+    @Nullable
+    private ScheduledFuture<?> sendFuture;
+
+    private boolean scheduled = false;
+
+    private boolean sending = false;
+
+    public CoalescingCommandQueue(ScheduledExecutorService scheduler, long coalescingMillis,
+            Function<T, CompletionStage<?>> sender) {
+        this.scheduler = scheduler;
+        this.coalescingMillis = Math.max(0, coalescingMillis);
+        this.sender = sender;
+    }
+
+    /**
+     * Queue a command, replacing any command not yet sent
+     */
+    public synchronized void submit(T command) {
+        T superseded = pending;
+        if (superseded != null) {
+            logger.debug("Command {} superseded by {} before being sent", superseded, command);
+        }
+        pending = command;
+        scheduleSend();
+    }
+
+    /**
+     * Queue a command only if no other command is waiting to be sent
+     *
+     * @return true if the command was queued
+     */
+    public synchronized boolean submitIfIdle(T command) {
+        if (pending != null) {
+            return false;
+        }
+        pending = command;
+        scheduleSend();
+        return true;
+    }
+
+    /**
+     * @return true if a command is waiting to be sent
+     */
+    public synchronized boolean hasPending() {
+        return pending != null;
+    }
+
+    /**
+     * @return true if no command is waiting or being sent
+     */
+    public synchronized boolean isIdle() {
+        return pending == null && !scheduled && !sending;
+    }
+
+    private void scheduleSend() {
+        // A command submitted while another is being sent is scheduled when that completes
+        if (!scheduled && !sending) {
+            scheduled = true;
+            sendFuture = scheduler.schedule(this::send, coalescingMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void send() {
+        T command;
+        synchronized (this) {
+            scheduled = false;
+            command = pending;
+            pending = null;
+            if (command == null) {
+                return;
+            }
+            sending = true;
+        }
+        CompletionStage<?> completion;
+        try {
+            completion = sender.apply(command);
+        } catch (RuntimeException e) {
+            logger.warn("Error sending command {}", command, e);
+            completion = CompletableFuture.completedFuture(null);
+        }
+        completion.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                logger.debug("Command {} completed with error: {}", command, throwable.getMessage());
+            }
+            synchronized (this) {
+                sending = false;
+                if (pending != null) {
+                    scheduleSend();
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop any command not yet sent
+     */
+    public synchronized void cancel() {
+        pending = null;
+        ScheduledFuture<?> future = sendFuture;
+        if (future != null) {
+            future.cancel(false);
+            sendFuture = null;
+        }
+        scheduled = false;
+    }
+}
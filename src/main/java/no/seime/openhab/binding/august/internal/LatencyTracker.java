@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link LatencyTracker} keeps the most recent latency samples, in milliseconds, and calculates the latest value
+ * and percentiles over them.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class LatencyTracker {
+
+    public static final int DEFAULT_WINDOW_SIZE = 100;
+
+    private final int windowSize;
+
+    private final Deque<Long> samples = new ArrayDeque<>();
+
+    public LatencyTracker() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    public LatencyTracker(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public synchronized void record(long millis) {
+        if (samples.size() == windowSize) {
+            samples.removeFirst();
+        }
+        samples.addLast(millis);
+    }
+
+    public synchronized boolean hasSamples() {
+        return !samples.isEmpty();
+    }
+
+    /**
+     * @return latest sample, or 0 if none
+     */
+    public synchronized long getLatest() {
+        Long latest = samples.peekLast();
+        return latest != null ? latest : 0;
+    }
+
+    /**
+     * @param percentile 0 - 100
+     * @return the sample at the given percentile (nearest rank), or 0 if no samples
+     */
+    public synchronized long getPercentile(int percentile) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link RollingStatistics} keeps the most recent samples of a measurement and calculates min, average and max
+ * over them.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class RollingStatistics {
+
+    private final int windowSize;
+
+    private final Deque<Integer> samples = new ArrayDeque<>();
+
+    public RollingStatistics(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public synchronized void record(int value) {
+        if (samples.size() == windowSize) {
+            samples.removeFirst();
+        }
+        samples.addLast(value);
+    }
+
+    public synchronized boolean hasSamples() {
+        return !samples.isEmpty();
+    }
+
+    /**
+     * @return latest sample, or 0 if none
+     */
+    public synchronized int getLatest() {
+        Integer latest = samples.peekLast();
+        return latest != null ? latest : 0;
+    }
+
+    public synchronized int getMin() {
+        return samples.stream().mapToInt(Integer::intValue).min().orElse(0);
+    }
+
+    public synchronized int getMax() {
+        return samples.stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    public synchronized double getAverage() {
+        return samples.stream().mapToInt(Integer::intValue).average().orElse(0);
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link SerialExecutor} runs submitted tasks one at a time and in submission order on top of a shared executor.
+ * Several serial executors can share the same pool, giving strict ordering per executor and parallelism between them.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class SerialExecutor implements Executor {
+
+    private final Logger logger = LoggerFactory.getLogger(SerialExecutor.class);
+
+    private final Queue<Task> tasks = new ArrayDeque<>();
+
+    private final Executor executor;
+
+    @Nullable
+    private Task active;
+
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(Runnable task) {
+        enqueue(new Task(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.warn("Error executing task", e);
+            } finally {
+                taskDone();
+            }
+        }, e -> {
+            // Nobody to report to
+        }));
+    }
+
+    /**
+     * Run an asynchronous task. The next task is not started before the completion stage returned by this task has
+     * completed. If the underlying executor rejects the task, the returned future completes exceptionally with the
+     * {@link RejectedExecutionException}.
+     *
+     * @return future completing with the result of the task
+     */
+    public synchronized <T> CompletableFuture<T> submit(Supplier<? extends CompletionStage<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Task queued = new Task(() -> {
+            CompletionStage<T> stage;
+            try {
+                stage = task.get();
+            } catch (RuntimeException e) {
+                logger.warn("Error executing task", e);
+                result.completeExceptionally(e);
+                taskDone();
+                return;
+            }
+            stage.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(value);
+                }
+                taskDone();
+            });
+        }, result::completeExceptionally);
+        try {
+            enqueue(queued);
+        } catch (RejectedExecutionException e) {
+            // Already reported through the returned future
+        }
+        return result;
+    }
+
+    private void enqueue(Task task) {
+        tasks.add(task);
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        Task next = tasks.poll();
+        active = next;
+        if (next != null) {
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                // Executor is shut down, queued tasks will never run
+                logger.debug("Executor rejected task, dropping {} queued task(s)", tasks.size() + 1);
+                List<Task> dropped = new ArrayList<>(tasks.size() + 1);
+                dropped.add(next);
+                dropped.addAll(tasks);
+                active = null;
+                tasks.clear();
+                dropped.forEach(task -> task.onDropped.accept(e));
+                throw e;
+            }
+        }
+    }
+
+    private void taskDone() {
+        try {
+            scheduleNext();
+        } catch (RejectedExecutionException e) {
+            // Already logged, nobody to report to
+        }
+    }
+
+    /**
+     * @return number of tasks waiting to be executed, not including the currently running one
+     */
+    public synchronized int getQueueSize() {
+        return tasks.size();
+    }
+
+    /**
+     * @return true if no task is running or waiting
+     */
+    public synchronized boolean isIdle() {
+        return active == null && tasks.isEmpty();
+    }
+
+    private static class Task implements Runnable {
+        private final Runnable body;
+
+        // Called if the task is dropped without running
+        private final Consumer<RejectedExecutionException> onDropped;
+
+        private Task(Runnable body, Consumer<RejectedExecutionException> onDropped) {
+            this.body = body;
+            this.onDropped = onDropped;
+        }
+
+        @Override
+        public void run() {
+            body.run();
+        }
+    }
+}
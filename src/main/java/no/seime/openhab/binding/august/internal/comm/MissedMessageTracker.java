@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+
+/**
+ * The {@link MissedMessageTracker} keeps the timetoken of the last message received per PubNub channel, and selects
+ * the messages fetched from history that were missed while disconnected. PubNub returns at most
+ * {@link #HISTORY_MAX_MESSAGES_PER_CHANNEL} messages per channel when fetching history for multiple channels.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+class MissedMessageTracker {
+
+    static final int HISTORY_MAX_MESSAGES_PER_CHANNEL = 25;
+
+    // Timetoken of the last message received per channel, or of its connection if none yet
+    private final Map<String, Long> lastTimetokens = new ConcurrentHashMap<>();
+
+    /**
+     * Catch up a channel without messages yet from the time it connected
+     */
+    void onConnected(String channelName, long connectTimetoken) {
+        lastTimetokens.putIfAbsent(channelName, connectTimetoken);
+    }
+
+    void onMessageReceived(String channelName, long timetoken) {
+        lastTimetokens.merge(channelName, timetoken, Math::max);
+    }
+
+    void remove(String channelName) {
+        lastTimetokens.remove(channelName);
+    }
+
+    void clear() {
+        lastTimetokens.clear();
+    }
+
+    /**
+     * @return timetoken of the last message received per channel, for the channels that can be caught up
+     */
+    Map<String, Long> getCatchUpPoints(Collection<String> channelNames) {
+        Map<String, Long> since = new HashMap<>();
+        channelNames.forEach(channelName -> {
+            Long timetoken = lastTimetokens.get(channelName);
+            if (timetoken != null) {
+                since.put(channelName, timetoken);
+            }
+        });
+        return since;
+    }
+
+    /**
+     * @return end of the history to fetch, inclusive, right after the oldest message already received
+     */
+    static long getHistoryEnd(Map<String, Long> catchUpPoints) {
+        return Collections.min(catchUpPoints.values()) + 1;
+    }
+
+    /**
+     * @return true if the history of the channel may hold more missed messages than fetched
+     */
+    static boolean isTruncated(List<PNFetchMessageItem> items) {
+        return items.size() >= HISTORY_MAX_MESSAGES_PER_CHANNEL;
+    }
+
+    /**
+     * Select the fetched messages not received yet, oldest first, and record them as received. A live message may
+     * have overtaken the history request, so messages are compared with the last one received when selected.
+     */
+    List<PNFetchMessageItem> selectMissed(String channelName, List<PNFetchMessageItem> items) {
+        return items.stream().filter(item -> item.getTimetoken() != null)
+                .sorted(Comparator.comparing(PNFetchMessageItem::getTimetoken))
+                .filter(item -> isNewerThanLastReceived(channelName, item.getTimetoken()))
+                .collect(Collectors.toList());
+    }
+
+    private boolean isNewerThanLastReceived(String channelName, long timetoken) {
+        AtomicBoolean newer = new AtomicBoolean(false);
+        lastTimetokens.compute(channelName, (k, lastTimetoken) -> {
+            if (lastTimetoken == null || timetoken > lastTimetoken) {
+                newer.set(true);
+                return timetoken;
+            }
+            return lastTimetoken;
+        });
+        return newer.get();
+    }
+}
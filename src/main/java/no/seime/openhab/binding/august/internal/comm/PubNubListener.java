@@ -26,6 +26,13 @@ public interface PubNubListener {
 
     void onPushMessage(String channelName, JsonElement message);
 
+    /**
+     * Push message including the PubNub timetoken of the message, 100ns units since epoch
+     */
+    default void onPushMessage(String channelName, JsonElement message, long timetoken) {
+        onPushMessage(channelName, message);
+    }
+
     void onPubNubDisconnect(String channelName);
 
     void onPubNubConnect(String channelName);
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+
+import no.seime.openhab.binding.august.internal.SerialExecutor;
+
+/**
+ * The {@link PubNubMessageDispatcher} moves PubNub callbacks off the PubNub subscribe thread. Each channel gets its
+ * own serial queue so events for a single lock are delivered in order, while the queues share a small thread pool so
+ * different locks are processed in parallel.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class PubNubMessageDispatcher implements PubNubListener {
+
+    private static final int POOL_SIZE = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(PubNubMessageDispatcher.class);
+
+    private final PubNubListener delegate;
+
+    private final ExecutorService pool;
+
+    private final Map<String, SerialExecutor> channelExecutors = new ConcurrentHashMap<>();
+
+    public PubNubMessageDispatcher(PubNubListener delegate, String threadPoolName) {
+        this(delegate, Executors.newFixedThreadPool(POOL_SIZE, new NamedThreadFactory(threadPoolName, true)));
+    }
+
+    PubNubMessageDispatcher(PubNubListener delegate, ExecutorService pool) {
+        this.delegate = delegate;
+        this.pool = pool;
+    }
+
+    @Override
+    public void onPushMessage(String channelName, JsonElement message) {
+        dispatch(channelName, () -> delegate.onPushMessage(channelName, message));
+    }
+
+    @Override
+    public void onPushMessage(String channelName, JsonElement message, long timetoken) {
+        dispatch(channelName, () -> delegate.onPushMessage(channelName, message, timetoken));
+    }
+
+    @Override
+    public void onPubNubDisconnect(String channelName) {
+        dispatch(channelName, () -> delegate.onPubNubDisconnect(channelName));
+    }
+
+    @Override
+    public void onPubNubConnect(String channelName) {
+        dispatch(channelName, () -> delegate.onPubNubConnect(channelName));
+    }
+
+    private void dispatch(String channelName, Runnable task) {
+        try {
+            // Enqueue while holding the map entry, so the queue cannot be removed in between
+            channelExecutors.compute(channelName, (k, executor) -> {
+                SerialExecutor channelExecutor = executor != null ? executor : new SerialExecutor(pool);
+                channelExecutor.execute(task);
+                return channelExecutor;
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Dispatcher is shut down, dropping event on channel {}", channelName);
+        }
+    }
+
+    /**
+     * Forget the queue of a channel no longer subscribed to, once the events already queued have been delivered. If
+     * the channel is subscribed again meanwhile, new events are queued behind them
+     */
+    public void removeChannel(String channelName) {
+        SerialExecutor executor = channelExecutors.get(channelName);
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> channelExecutors.computeIfPresent(channelName,
+                    (k, current) -> current == executor && current.getQueueSize() == 0 ? null : current));
+        } catch (RejectedExecutionException e) {
+            channelExecutors.remove(channelName);
+        }
+    }
+
+    public void dispose() {
+        pool.shutdownNow();
+        channelExecutors.clear();
+    }
+}
@@ -12,11 +12,17 @@
  */
 package no.seime.openhab.binding.august.internal.comm;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +34,9 @@ import com.pubnub.api.UserId;
 import com.pubnub.api.callbacks.SubscribeCallback;
 import com.pubnub.api.enums.PNLogVerbosity;
 import com.pubnub.api.enums.PNReconnectionPolicy;
+import com.pubnub.api.enums.PNStatusCategory;
 import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
 import com.pubnub.api.models.consumer.message_actions.PNMessageAction;
 import com.pubnub.api.models.consumer.objects_api.channel.PNChannelMetadataResult;
 import com.pubnub.api.models.consumer.objects_api.membership.PNMembershipResult;
@@ -50,16 +58,62 @@ public class PubNubMessageSubscriber {
 
     private static final Logger logger = LoggerFactory.getLogger(PubNubMessageSubscriber.class);
 
+    // Channels are caught up from a bit before they connected, to allow for the local clock being ahead of PubNub
+    private static final long CONNECT_CLOCK_MARGIN_MILLIS = 30_000;
+
     private final Set<String> channels = new HashSet<>();
 
+    // Used to catch up on missed messages after reconnect
+    private final MissedMessageTracker missedMessages = new MissedMessageTracker();
+
     private PubNub pub = null;
 
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
 
     SubscribeCallback callback = null;
 
+    private PubNubListener messageListener;
+
+    // Channel group holding all lock channels, null when subscribing to channels directly
+    @Nullable
+    private volatile String channelGroup;
+
+    private boolean channelGroupSubscribed = false;
+
+    private volatile boolean channelGroupConnected = false;
+
+    private final Function<PNConfiguration, PubNub> pubNubFactory;
+
+    public PubNubMessageSubscriber() {
+        this(PubNub::new);
+    }
+
+    /**
+     * @param pubNubFactory creates the PubNub client, replaced by tests
+     */
+    PubNubMessageSubscriber(Function<PNConfiguration, PubNub> pubNubFactory) {
+        this.pubNubFactory = pubNubFactory;
+    }
+
     public void init(String userIdString, PubNubListener messageListener, EcoSystem ecoSystem)
             throws PubNubMessageException {
+        init(userIdString, messageListener, ecoSystem, null);
+    }
+
+    /**
+     * @param channelGroup if not null, lock channels are managed as members of this channel group and only the group
+     *            itself is subscribed to. Membership changes then do not restart the subscribe loop.
+     */
+    public synchronized void init(String userIdString, PubNubListener messageListener, EcoSystem ecoSystem,
+            @Nullable String channelGroup) throws PubNubMessageException {
+
+        if (initialized) {
+            // Re-initialization, drop the previous connection and its subscriptions
+            dispose();
+        }
+
+        this.messageListener = messageListener;
+        this.channelGroup = channelGroup;
 
         try {
             final UserId userId = new UserId("pn-" + userIdString.toUpperCase(Locale.ROOT));
@@ -70,7 +124,7 @@ public class PubNubMessageSubscriber {
             pnConfiguration.setMaximumReconnectionRetries(100);
             pnConfiguration.setLogVerbosity(PNLogVerbosity.BODY);
 
-            pub = new PubNub(pnConfiguration);
+            pub = pubNubFactory.apply(pnConfiguration);
 
             logger.debug("Starting PubNub subscription");
 
@@ -91,7 +145,14 @@ public class PubNubMessageSubscriber {
                             switch (status.getCategory()) {
                                 case PNConnectedCategory:
                                 case PNReconnectedCategory:
-                                    status.getAffectedChannels().forEach(e -> messageListener.onPubNubConnect(e));
+                                    if (isChannelGroupAffected(status)) {
+                                        channelGroupConnected = true;
+                                    }
+                                    List<String> connectedChannels = getAffectedChannels(status);
+                                    onChannelsConnected(connectedChannels);
+                                    if (status.getCategory() == PNStatusCategory.PNReconnectedCategory) {
+                                        catchUpFromHistory(connectedChannels);
+                                    }
                                     break;
                                 // Subscribe temporarily failed but reconnected.
                                 // There is no longer any issue.
@@ -100,7 +161,10 @@ public class PubNubMessageSubscriber {
                                 case PNUnexpectedDisconnectCategory:
                                     // Usually an issue with the internet connection.
                                     // This is an error: handle appropriately.
-                                    status.getAffectedChannels().forEach(e -> messageListener.onPubNubDisconnect(e));
+                                    if (isChannelGroupAffected(status)) {
+                                        channelGroupConnected = false;
+                                    }
+                                    getAffectedChannels(status).forEach(e -> messageListener.onPubNubDisconnect(e));
                                     break;
                                 case PNAccessDeniedCategory:
                                     // PAM does not allow this client to subscribe to this
@@ -143,7 +207,13 @@ public class PubNubMessageSubscriber {
                     logger.debug("Message {} ", message);
                     if (message.getChannel() != null) {
                         logger.debug("Received message on channel {}: {}", message.getChannel(), message.getMessage());
-                        messageListener.onPushMessage(message.getChannel(), message.getMessage());
+                        if (message.getTimetoken() != null) {
+                            missedMessages.onMessageReceived(message.getChannel(), message.getTimetoken());
+                            messageListener.onPushMessage(message.getChannel(), message.getMessage(),
+                                    message.getTimetoken());
+                        } else {
+                            messageListener.onPushMessage(message.getChannel(), message.getMessage());
+                        }
                     }
                 }
 
@@ -220,6 +290,15 @@ public class PubNubMessageSubscriber {
 
             pub.addListener(callback);
 
+            if (channelGroup != null) {
+                // Start from an empty group, channels left over from a previous run are added back by the caller
+                try {
+                    pub.deleteChannelGroup().channelGroup(channelGroup).sync();
+                } catch (PubNubException e) {
+                    logger.debug("Could not reset channel group {}: {}", channelGroup, e.getMessage());
+                }
+            }
+
             initialized = true;
 
         } catch (PubNubException e) {
@@ -227,41 +306,198 @@ public class PubNubMessageSubscriber {
         }
     }
 
-    public synchronized void addListener(String channelName) {
+    public boolean isInitialized() {
+        return initialized;
+    }
+
+    public void addListener(String channelName) {
+        subscribe(List.of(channelName));
+    }
+
+    public void removeListener(String channelName) {
+        unsubscribe(List.of(channelName));
+    }
+
+    /**
+     * Subscribe to a batch of channels using a single subscribe call, restarting the PubNub subscribe loop only once
+     */
+    public synchronized void subscribe(Collection<String> channelNames) {
 
         if (!initialized) {
             logger.debug("Cannot add listener before component is initialized");
             return;
         }
 
-        boolean added = channels.add(channelName);
-        if (added) {
-            logger.debug("Adding listener for channel {}", channelName);
-            pub.subscribe().channels(List.of(channelName)).execute();
-        } else {
-            logger.warn("Duplicate listener registered for channel {} ignored", channelName);
+        List<String> added = new ArrayList<>();
+        for (String channelName : channelNames) {
+            if (channels.add(channelName)) {
+                added.add(channelName);
+            } else {
+                logger.warn("Duplicate listener registered for channel {} ignored", channelName);
+            }
+        }
+        if (!added.isEmpty()) {
+            logger.debug("Adding listener for channels {}", added);
+            String group = channelGroup;
+            if (group != null) {
+                addToChannelGroup(group, added);
+            } else {
+                pub.subscribe().channels(added).execute();
+            }
         }
     }
 
-    public synchronized void removeListener(String channelName) {
+    /**
+     * Unsubscribe from a batch of channels using a single unsubscribe call
+     */
+    public synchronized void unsubscribe(Collection<String> channelNames) {
 
         if (!initialized) {
             logger.debug("Cannot remove listener before component is initialized");
             return;
         }
 
-        boolean removed = channels.remove(channelName);
-        if (removed) {
-            logger.debug("Removing listener for channel {}", channelName);
-            pub.unsubscribe().channels(List.of(channelName)).execute();
-        } else {
-            logger.warn("Listener for channel {} not found, cannot remove", channelName);
+        List<String> removed = new ArrayList<>();
+        for (String channelName : channelNames) {
+            missedMessages.remove(channelName);
+            if (channels.remove(channelName)) {
+                removed.add(channelName);
+            } else {
+                logger.warn("Listener for channel {} not found, cannot remove", channelName);
+            }
+        }
+        if (!removed.isEmpty()) {
+            logger.debug("Removing listener for channels {}", removed);
+            String group = channelGroup;
+            if (group != null) {
+                pub.removeChannelsFromChannelGroup().channelGroup(group).channels(removed).async((result, status) -> {
+                    if (status.isError()) {
+                        logger.warn("Error removing channels {} from channel group {}: {}", removed, group,
+                                status.getErrorData());
+                    }
+                });
+                if (channels.isEmpty() && channelGroupSubscribed) {
+                    // Subscribing to an empty group is rejected by PubNub
+                    pub.unsubscribe().channelGroups(List.of(group)).execute();
+                    channelGroupSubscribed = false;
+                    channelGroupConnected = false;
+                }
+            } else {
+                pub.unsubscribe().channels(removed).execute();
+            }
+        }
+    }
+
+    private void addToChannelGroup(String group, List<String> added) {
+        pub.addChannelsToChannelGroup().channelGroup(group).channels(added).async((result, status) -> {
+            if (status.isError()) {
+                logger.warn("Error adding channels to channel group {}, falling back to channel subscription: {}",
+                        group, status.getErrorData());
+                fallbackToChannelSubscription();
+            } else {
+                onChannelsAddedToGroup(group, added);
+            }
+        });
+    }
+
+    private synchronized void onChannelsAddedToGroup(String group, List<String> added) {
+        if (!initialized || !group.equals(channelGroup)) {
+            return;
+        }
+        if (!channelGroupSubscribed) {
+            // The group is only subscribed to once it has members, connect status covers all its channels
+            logger.debug("Subscribing to channel group {}", group);
+            pub.subscribe().channelGroups(List.of(group)).execute();
+            channelGroupSubscribed = true;
+        } else if (channelGroupConnected) {
+            // No new connect status is issued when the group membership changes
+            onChannelsConnected(added);
+        }
+    }
+
+    private synchronized void fallbackToChannelSubscription() {
+        String group = channelGroup;
+        if (!initialized || group == null) {
+            return;
+        }
+        channelGroup = null;
+        if (channelGroupSubscribed) {
+            pub.unsubscribe().channelGroups(List.of(group)).execute();
+            channelGroupSubscribed = false;
+            channelGroupConnected = false;
+        }
+        if (!channels.isEmpty()) {
+            pub.subscribe().channels(new ArrayList<>(channels)).execute();
+        }
+    }
+
+    private void onChannelsConnected(List<String> connectedChannels) {
+        // Channels without messages yet are caught up from the time they connected
+        long connectTimetoken = (System.currentTimeMillis() - CONNECT_CLOCK_MARGIN_MILLIS) * 10_000;
+        connectedChannels.forEach(channelName -> {
+            missedMessages.onConnected(channelName, connectTimetoken);
+            messageListener.onPubNubConnect(channelName);
+        });
+    }
+
+    /**
+     * Fetch messages published while disconnected from PubNub history and replay them in order. Only messages newer
+     * than the last one received on each channel are replayed.
+     */
+    private void catchUpFromHistory(List<String> reconnectedChannels) {
+        Map<String, Long> since = missedMessages.getCatchUpPoints(reconnectedChannels);
+        if (since.isEmpty()) {
+            return;
+        }
+
+        logger.debug("Fetching messages missed while disconnected for channels {}", since.keySet());
+        pub.fetchMessages().channels(new ArrayList<>(since.keySet())).end(MissedMessageTracker.getHistoryEnd(since))
+                .maximumPerChannel(MissedMessageTracker.HISTORY_MAX_MESSAGES_PER_CHANNEL).async((result, status) -> {
+                    if (status.isError() || result == null) {
+                        logger.warn("Could not fetch messages missed while disconnected: {}", status.getErrorData());
+                        return;
+                    }
+                    result.getChannels().forEach((channelName, items) -> replayMissedMessages(channelName, items));
+                });
+    }
+
+    private void replayMissedMessages(String channelName, List<PNFetchMessageItem> items) {
+        if (MissedMessageTracker.isTruncated(items)) {
+            logger.info("Missed {} or more messages on channel {}, only the latest are replayed",
+                    MissedMessageTracker.HISTORY_MAX_MESSAGES_PER_CHANNEL, channelName);
+        }
+        missedMessages.selectMissed(channelName, items).forEach(item -> {
+            logger.debug("Replaying missed message on channel {}: {}", channelName, item.getMessage());
+            messageListener.onPushMessage(channelName, item.getMessage(), item.getTimetoken());
+        });
+    }
+
+    private boolean isChannelGroupAffected(PNStatus status) {
+        String group = channelGroup;
+        return group != null && status.getAffectedChannelGroups() != null
+                && status.getAffectedChannelGroups().contains(group);
+    }
+
+    /**
+     * Resolve the lock channels affected by a status event, expanding our channel group to its member channels
+     */
+    private List<String> getAffectedChannels(PNStatus status) {
+        Set<String> affected = new LinkedHashSet<>();
+        if (status.getAffectedChannels() != null) {
+            affected.addAll(status.getAffectedChannels());
+        }
+        if (isChannelGroupAffected(status)) {
+            synchronized (this) {
+                affected.addAll(channels);
+            }
         }
+        return new ArrayList<>(affected);
     }
 
-    public void dispose() {
+    public synchronized void dispose() {
         logger.debug("Disposing pubNub");
         if (initialized) {
+            initialized = false;
             pub.unsubscribeAll();
             if (callback != null) {
                 pub.removeListener(callback);
@@ -270,6 +506,9 @@ public class PubNubMessageSubscriber {
             pub.destroy();
             pub.forceDestroy();
             channels.clear();
+            missedMessages.clear();
+            channelGroupSubscribed = false;
+            channelGroupConnected = false;
         }
     }
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link PubNubSubscriptionManager} queues channel registrations and flushes them to the
+ * {@link PubNubMessageSubscriber} as a single multi-channel subscribe once registrations have settled. Registrations
+ * made before the subscriber is initialized are kept and replayed when it is.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class PubNubSubscriptionManager {
+
+    static final long DEBOUNCE_MILLIS = 500;
+
+    static final long MAX_DELAY_MILLIS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(PubNubSubscriptionManager.class);
+
+    private final PubNubMessageSubscriber subscriber;
+
+    private final ScheduledExecutorService scheduler;
+
+    // All channels that should currently be subscribed to
+    private final Set<String> channels = new LinkedHashSet<>();
+
+    private final Set<String> pendingSubscribe = new LinkedHashSet<>();
+
+    private final Set<String> pendingUnsubscribe = new LinkedHashSet<>();
+
+    @Nullable
+    private ScheduledFuture<?> flushFuture;
+
+    private long firstPendingMillis;
+
+    public PubNubSubscriptionManager(PubNubMessageSubscriber subscriber, ScheduledExecutorService scheduler) {
+        this.subscriber = subscriber;
+        this.scheduler = scheduler;
+    }
+
+    public synchronized void addChannel(String channelName) {
+        if (channels.add(channelName)) {
+            if (!pendingUnsubscribe.remove(channelName)) {
+                pendingSubscribe.add(channelName);
+            }
+            scheduleFlush();
+        }
+    }
+
+    public synchronized void removeChannel(String channelName) {
+        if (channels.remove(channelName)) {
+            if (!pendingSubscribe.remove(channelName)) {
+                pendingUnsubscribe.add(channelName);
+            }
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * Called when the subscriber has been (re)initialized. A fresh PubNub connection has no subscriptions, so every
+     * registered channel is queued again.
+     */
+    public synchronized void onSubscriberInitialized() {
+        pendingUnsubscribe.clear();
+        pendingSubscribe.addAll(channels);
+        if (!pendingSubscribe.isEmpty()) {
+            cancelFlush();
+            flushFuture = scheduler.schedule(this::flush, 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduleFlush() {
+        long now = System.currentTimeMillis();
+        ScheduledFuture<?> future = flushFuture;
+        if (future == null || future.isDone()) {
+            firstPendingMillis = now;
+        } else if (now - firstPendingMillis >= MAX_DELAY_MILLIS) {
+            // Keep the pending flush, registrations keep coming but must not be postponed forever
+            return;
+        } else {
+            future.cancel(false);
+        }
+        flushFuture = scheduler.schedule(this::flush, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void flush() {
+        List<String> toSubscribe;
+        List<String> toUnsubscribe;
+        synchronized (this) {
+            if (!subscriber.isInitialized()) {
+                logger.debug("PubNub not initialized yet, keeping {} channel registration(s) queued",
+                        pendingSubscribe.size());
+                return;
+            }
+            toSubscribe = new ArrayList<>(pendingSubscribe);
+            toUnsubscribe = new ArrayList<>(pendingUnsubscribe);
+            pendingSubscribe.clear();
+            pendingUnsubscribe.clear();
+        }
+
+        if (!toUnsubscribe.isEmpty()) {
+            subscriber.unsubscribe(toUnsubscribe);
+        }
+        if (!toSubscribe.isEmpty()) {
+            logger.debug("Subscribing to {} channel(s) in one batch", toSubscribe.size());
+            subscriber.subscribe(toSubscribe);
+        }
+    }
+
+    private void cancelFlush() {
+        ScheduledFuture<?> future = flushFuture;
+        if (future != null) {
+            future.cancel(false);
+            flushFuture = null;
+        }
+    }
+
+    public synchronized void dispose() {
+        cancelFlush();
+        channels.clear();
+        pendingSubscribe.clear();
+        pendingUnsubscribe.clear();
+    }
+}
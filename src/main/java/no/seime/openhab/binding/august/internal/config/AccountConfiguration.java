@@ -39,9 +39,16 @@ public class AccountConfiguration {
 
     public EcoSystem ecoSystem = EcoSystem.AUGUST;
 
+    public boolean pubNubChannelGroup = false;
+
+    public static final int DEFAULT_MAX_CONCURRENT_INITIAL_POLLS = 4;
+
+    public int maxConcurrentInitialPolls = DEFAULT_MAX_CONCURRENT_INITIAL_POLLS;
+
     @java.lang.Override
     public java.lang.String toString() {
         return "AccountConfiguration{" + "email='" + email + '\'' + ", password='REDACTED'" + ", phone='" + phone + '\''
-                + ", refreshIntervalSeconds=" + refreshIntervalSeconds + '}';
+                + ", refreshIntervalSeconds=" + refreshIntervalSeconds + ", pubNubChannelGroup=" + pubNubChannelGroup
+                + ", maxConcurrentInitialPolls=" + maxConcurrentInitialPolls + '}';
     }
 }
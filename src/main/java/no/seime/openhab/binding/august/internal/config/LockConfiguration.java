@@ -23,8 +23,47 @@ public class LockConfiguration {
      */
     public String lockId;
 
+    /*
+     * Time to wait for more commands before sending a lock operation. Only the last command within the window is sent
+     */
+    public long commandCoalescingMillis = 250;
+
+    /*
+     * Update lock state channel with the requested state before the lock has confirmed it
+     */
+    public boolean optimisticUpdates = false;
+
+    /*
+     * Let the server accept lock operations at once and report the result via push message
+     */
+    public boolean asyncOperations = false;
+
+    /*
+     * Max age in seconds of known lock state used to answer REFRESH without querying the lock
+     */
+    public long refreshCacheSeconds = 300;
+
+    /*
+     * Max number of times per hour the lock may be woken up by status queries, reduced when battery is low
+     */
+    public int maxWakeUpsPerHour = 12;
+
+    /*
+     * Do not send lock/unlock operations if the lock is known to already be in the requested state
+     */
+    public boolean skipRedundantOperations = false;
+
+    /*
+     * Skip scheduled polls of lock details if the lock state has been confirmed within this number of seconds
+     */
+    public long pollFreshnessSeconds = 3600;
+
     @Override
     public String toString() {
-        return "LockConfiguration{" + "lockId='" + lockId + '\'' + '}';
+        return "LockConfiguration{" + "lockId='" + lockId + '\'' + ", commandCoalescingMillis="
+                + commandCoalescingMillis + ", optimisticUpdates=" + optimisticUpdates + ", asyncOperations="
+                + asyncOperations + ", refreshCacheSeconds=" + refreshCacheSeconds
+                + ", maxWakeUpsPerHour=" + maxWakeUpsPerHour + ", skipRedundantOperations=" + skipRedundantOperations
+                + ", pollFreshnessSeconds=" + pollFreshnessSeconds + '}';
     }
 }
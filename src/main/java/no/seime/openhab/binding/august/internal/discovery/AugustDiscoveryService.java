@@ -13,6 +13,7 @@
 package no.seime.openhab.binding.august.internal.discovery;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
@@ -29,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import no.seime.openhab.binding.august.internal.BindingConstants;
 import no.seime.openhab.binding.august.internal.handler.AugustAccountHandler;
+import no.seime.openhab.binding.august.internal.model.Lock;
+import no.seime.openhab.binding.august.internal.model.LockList;
 
 /**
  * @author Arne Seime - Initial contribution
@@ -38,11 +41,16 @@ public class AugustDiscoveryService extends AbstractDiscoveryService {
     public static final Set<ThingTypeUID> DISCOVERABLE_THING_TYPES_UIDS = Collections
             .singleton(BindingConstants.THING_TYPE_LOCK);
     private static final long DISCOVERY_INTERVAL_MINUTES = 60 * 4; // EVERY 4 HOUR
+    // Lock list fetched by the account within this time is used as is
+    private static final long MAX_LOCK_LIST_AGE_MINUTES = 60 * 2;
     public static final String LOCK_ID_PROPERTY = "lockId";
     private final Logger logger = LoggerFactory.getLogger(AugustDiscoveryService.class);
     private final AugustAccountHandler accountHandler;
     private Optional<ScheduledFuture<?>> discoveryJob = Optional.empty();
 
+    // Lock list used at the last scan, background scans only report locks changed since
+    private LockList published = LockList.EMPTY;
+
     public AugustDiscoveryService(final AugustAccountHandler accountHandler) {
         super(DISCOVERABLE_THING_TYPES_UIDS, 10);
         this.accountHandler = accountHandler;
@@ -50,31 +58,63 @@ public class AugustDiscoveryService extends AbstractDiscoveryService {
 
     @Override
     protected void startBackgroundDiscovery() {
-        discoveryJob = Optional
-                .of(scheduler.scheduleWithFixedDelay(this::startScan, 0, DISCOVERY_INTERVAL_MINUTES, TimeUnit.MINUTES));
+        discoveryJob = Optional.of(
+                scheduler.scheduleWithFixedDelay(() -> scan(false), 0, DISCOVERY_INTERVAL_MINUTES, TimeUnit.MINUTES));
     }
 
     @Override
     protected void startScan() {
-        logger.debug("Start scan for August locks");
-        synchronized (this) {
-            removeOlderResults(getTimestampOfLastScan(), null, accountHandler.getThing().getUID());
-            final ThingUID accountUID = accountHandler.getThing().getUID();
-            accountHandler.doPoll();
+        scan(true);
+    }
 
-            accountHandler.getLocks().entrySet().forEach(e -> {
-                ThingTypeUID thingType = BindingConstants.THING_TYPE_LOCK;
+    /**
+     * @param full report all locks, as for a scan requested by the user, instead of only those changed since the
+     *            last scan
+     */
+    void scan(boolean full) {
+        logger.debug("Start scan for August locks");
+        LockList current = accountHandler.getLockList();
+        if (current.getFetchedMillis() == 0) {
+            // Not logged in yet, scan once the lock list has been fetched
+            accountHandler.whenReady().thenRun(() -> publish(accountHandler.getLockList(), full));
+        } else if (System.currentTimeMillis() - current.getFetchedMillis() > TimeUnit.MINUTES
+                .toMillis(MAX_LOCK_LIST_AGE_MINUTES)) {
+            logger.debug("Lock list is outdated, fetching it");
+            scheduler.execute(() -> accountHandler.refreshLocks().thenAccept(locks -> publish(locks, full)));
+        } else {
+            publish(current, full);
+        }
+    }
 
-                final ThingUID deviceUID = new ThingUID(thingType, accountUID, e.getKey());
+    /**
+     * Report locks added, renamed or removed since the lock list last reported. A full scan reports all locks, as
+     * results may have been removed from the inbox since.
+     */
+    private synchronized void publish(LockList current, boolean full) {
+        if (!full && current.getVersion() == published.getVersion()) {
+            logger.debug("No changes in lock list since last scan");
+            return;
+        }
+        final ThingUID accountUID = accountHandler.getThing().getUID();
+        Map<String, Lock> previousLocks = published.getLocks();
+        current.getLocks().forEach((lockId, lock) -> {
+            Lock previous = previousLocks.get(lockId);
+            if (full || previous == null || !getLabel(previous).equals(getLabel(lock))) {
+                final ThingUID deviceUID = new ThingUID(BindingConstants.THING_TYPE_LOCK, accountUID, lockId);
 
                 final DiscoveryResult discoveryResult = DiscoveryResultBuilder.create(deviceUID).withBridge(accountUID)
-                        .withProperty(LOCK_ID_PROPERTY, e.getKey())
-                        .withLabel(e.getValue().getHouseName() + " / " + e.getValue().getLockName())
+                        .withProperty(LOCK_ID_PROPERTY, lockId).withLabel(getLabel(lock))
                         .withRepresentationProperty(LOCK_ID_PROPERTY).build();
                 thingDiscovered(discoveryResult);
+            }
+        });
+        previousLocks.keySet().stream().filter(lockId -> !current.getLocks().containsKey(lockId))
+                .forEach(lockId -> thingRemoved(new ThingUID(BindingConstants.THING_TYPE_LOCK, accountUID, lockId)));
+        published = current;
+    }
 
-            });
-        }
+    private static String getLabel(Lock lock) {
+        return lock.getHouseName() + " / " + lock.getLockName();
     }
 
     @Override
@@ -58,4 +58,7 @@ public class GetLockResponse {
     public UserListDTO userList;
 
     public KeypadDTO keypad;
+
+    @SerializedName("Bridge")
+    public BridgeDTO bridge;
 }
@@ -26,14 +26,27 @@ public class RemoteOperateLockRequest implements AbstractRequest {
 
     Operation operation;
 
+    transient boolean async;
+
     public RemoteOperateLockRequest(String lockId, Operation operation) {
+        this(lockId, operation, false);
+    }
+
+    /**
+     * @param async if true the server responds once the operation is accepted, and reports the result via a push
+     *            message
+     */
+    public RemoteOperateLockRequest(String lockId, Operation operation, boolean async) {
         this.lockId = lockId;
         this.operation = operation;
+        this.async = async;
     }
 
     @Override
     public String getRequestUrl() {
-        return String.format("/remoteoperate/%s/%s", lockId, operation.urlWord);
+        String url = String.format("/remoteoperate/%s/%s", lockId, operation.urlWord);
+        // Asynchronous variant as used by the mobile apps, not verified against all locks and eco systems
+        return async ? url + "?v=2.0.0" : url;
     }
 
     @Override
@@ -30,11 +30,16 @@ public class RemoteOperateLockResponse {
     public Info info;
 
     public static class Info {
+        // Operation performed, lock, unlock or status
+        public String action;
+
+        public Context context;
+
         public String lockType;
         @SerializedName("serialNumber")
         public String lockSerialNumber;
 
-        @SerializedName("bluetoothRSSI")
+        @SerializedName(value = "bluetoothRSSI", alternate = { "rssi" })
         public Integer rssi;
 
         public Integer wlanRSSI;
@@ -42,5 +47,13 @@ public class RemoteOperateLockResponse {
         // Bridge serial?
         @SerializedName("serial")
         public String bridgeSerialNumber;
+
+        @SerializedName("bridgeID")
+        public String bridgeId;
+    }
+
+    public static class Context {
+        @SerializedName("transactionID")
+        public String transactionId;
     }
 }
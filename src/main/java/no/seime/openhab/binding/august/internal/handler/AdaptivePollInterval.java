@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link AdaptivePollInterval} decides how often lock details are polled, depending on the health of the push
+ * message connection. While push is connected and has delivered within {@link #PUSH_SILENCE_SECONDS}, details are
+ * polled rarely. Otherwise polling starts at {@link #FALLBACK_MIN_SECONDS} and backs off to
+ * {@link #FALLBACK_MAX_SECONDS}.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class AdaptivePollInterval {
+
+    public enum Mode {
+        PUSH,
+        FALLBACK
+    }
+
+    public static final int PUSH_POLLING_SECONDS = 6 * 3600;
+
+    // Max time without push activity before push is considered broken
+    public static final int PUSH_SILENCE_SECONDS = 12 * 3600;
+
+    public static final int FALLBACK_MIN_SECONDS = 60;
+
+    public static final int FALLBACK_MAX_SECONDS = AugustLockHandler.LOCK_POLLING_SECONDS;
+
+    private final LongSupplier clock;
+
+    private boolean pushConnected = false;
+
+    private long lastPushActivityMillis;
+
+    private int fallbackPolls = 0;
+
+    private Mode mode = Mode.FALLBACK;
+
+    public AdaptivePollInterval() {
+        this(System::currentTimeMillis);
+    }
+
+    AdaptivePollInterval(LongSupplier clock) {
+        this.clock = clock;
+        lastPushActivityMillis = clock.getAsLong();
+    }
+
+    public synchronized void setPushConnected(boolean connected) {
+        pushConnected = connected;
+        if (connected) {
+            lastPushActivityMillis = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Record a message received via push
+     */
+    public synchronized void onPushActivity() {
+        lastPushActivityMillis = clock.getAsLong();
+    }
+
+    /**
+     * Record a poll of lock details, backing off further polls while in fallback mode
+     */
+    public synchronized void onPoll() {
+        if (getMode() == Mode.FALLBACK) {
+            fallbackPolls++;
+        }
+    }
+
+    public synchronized Mode getMode() {
+        boolean pushHealthy = pushConnected
+                && clock.getAsLong() - lastPushActivityMillis < TimeUnit.SECONDS.toMillis(PUSH_SILENCE_SECONDS);
+        Mode current = pushHealthy ? Mode.PUSH : Mode.FALLBACK;
+        if (current != mode) {
+            mode = current;
+            fallbackPolls = 0;
+        }
+        return mode;
+    }
+
+    /**
+     * @return time between polls of lock details in the current mode
+     */
+    public synchronized long getIntervalMillis() {
+        if (getMode() == Mode.PUSH) {
+            return TimeUnit.SECONDS.toMillis(PUSH_POLLING_SECONDS);
+        }
+        long seconds = FALLBACK_MIN_SECONDS * (1L << Math.min(fallbackPolls, 16));
+        return TimeUnit.SECONDS.toMillis(Math.min(seconds, FALLBACK_MAX_SECONDS));
+    }
+}
@@ -13,18 +13,27 @@
 package no.seime.openhab.binding.august.internal.handler;
 
 import java.time.ZonedDateTime;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
 import org.openhab.core.storage.Storage;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
@@ -40,11 +49,14 @@ import com.google.gson.reflect.TypeToken;
 
 import no.seime.openhab.binding.august.internal.AugustException;
 import no.seime.openhab.binding.august.internal.AuthenticationStatus;
+import no.seime.openhab.binding.august.internal.BoundedExecutor;
+import no.seime.openhab.binding.august.internal.SerialExecutor;
 import no.seime.openhab.binding.august.internal.comm.*;
 import no.seime.openhab.binding.august.internal.config.AccountConfiguration;
 import no.seime.openhab.binding.august.internal.config.EcoSystem;
 import no.seime.openhab.binding.august.internal.dto.*;
 import no.seime.openhab.binding.august.internal.model.Lock;
+import no.seime.openhab.binding.august.internal.model.LockList;
 
 /**
  * The {@link AugustAccountHandler} is responsible for authentication
@@ -60,6 +72,8 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
     public static final String STORAGE_KEY_ACCESS_TOKEN_EXPIRY = "ACCESS_TOKEN_EXPIRY";
     public static final String STORAGE_KEY_USERID = "USERID";
     public static final String STORAGE_KEY_PREVIOUS_ECOSYSTEM = "ECO_SYSTEM";
+    // Max number of remote operations running at the same time, on different Connect bridges
+    public static final int OPERATION_POOL_SIZE = 4;
     private final Logger logger = LoggerFactory.getLogger(AugustAccountHandler.class);
     private Optional<ScheduledFuture<?>> statusFuture = Optional.empty();
     @Nullable
@@ -67,17 +81,58 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
     private final RestApiClient restApiClient;
 
     private final PubNubMessageSubscriber messageSubscriber;
+    private volatile PubNubMessageDispatcher messageDispatcher;
+    private final PubNubSubscriptionManager subscriptionManager;
     private final Storage<String> storage;
 
-    private Map<String, Lock> locks = new HashMap<>();
+    // Locks listed for the account, replaced as a whole on each fetch so readers never block
+    private final AtomicReference<LockList> lockList = new AtomicReference<>(LockList.EMPTY);
+
+    // Fetch of the lock list in progress, shared by all callers asking for a refresh meanwhile
+    private final AtomicReference<@Nullable CompletableFuture<LockList>> inFlightRefresh = new AtomicReference<>();
     private final Map<String, PubNubListener> eventListeners = new ConcurrentHashMap<>();
 
+    // Remote operations queued per Connect bridge
+    private final Map<String, SerialExecutor> bridgeQueues = new ConcurrentHashMap<>();
+
+    // Remote operations block while the bridge wakes the lock, so they are kept off the shared openHAB thread pool
+    private volatile ExecutorService operationExecutor;
+
+    // Lock detail fetches, kept off the shared openHAB thread pool as well
+    private volatile ExecutorService refreshExecutor;
+
+    // Online state of Connect bridges, as reported by lock details and push messages
+    private final Map<String, Boolean> bridgeOnline = new ConcurrentHashMap<>();
+
+    private final RefreshCoordinator refreshCoordinator;
+
+    private final LockSnapshotStore snapshotStore;
+
+    // Completed when logged in and the lock list has been fetched
+    private volatile CompletableFuture<Void> readiness = new CompletableFuture<>();
+
+    private volatile BoundedExecutor initialPollExecutor;
+
+    // Set by dispose(), which shuts down the thread pools. A configuration update calls dispose() and then
+    // initialize() on the same handler, so initialize() creates them again
+    private volatile boolean threadPoolsShutDown;
+
     public AugustAccountHandler(final Bridge bridge, RestApiClient restApiClient, Storage<String> storage) {
         super(bridge);
         this.restApiClient = restApiClient;
         this.storage = storage;
         messageSubscriber = new PubNubMessageSubscriber();
+        messageDispatcher = newMessageDispatcher();
+        operationExecutor = newOperationExecutor();
+        subscriptionManager = new PubNubSubscriptionManager(messageSubscriber, scheduler);
         restApiClient.init(bridge.getUID(), this);
+        refreshExecutor = newRefreshExecutor();
+        // Fetches go to the current refresh pool, which is replaced when the handler is initialized after dispose().
+        // No lock refreshes while the account is offline, locks are polled again when it comes back online
+        refreshCoordinator = new RefreshCoordinator(scheduler, command -> refreshExecutor.execute(command),
+                restApiClient, () -> getThing().getStatus() == ThingStatus.ONLINE ? getLockHandlers() : List.of());
+        snapshotStore = new LockSnapshotStore(storage);
+        initialPollExecutor = new BoundedExecutor(scheduler, AccountConfiguration.DEFAULT_MAX_CONCURRENT_INITIAL_POLLS);
     }
 
     @Override
@@ -89,6 +144,11 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
 
         updateStatus(ThingStatus.UNKNOWN);
         config = getConfigAs(AccountConfiguration.class);
+        restartThreadPools();
+        if (readiness.isDone()) {
+            readiness = new CompletableFuture<>();
+        }
+        initialPollExecutor = new BoundedExecutor(scheduler, config.maxConcurrentInitialPolls);
 
         if ((null == config.email || null == config.phone || null == config.password)) {
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
@@ -159,6 +219,30 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
         }
     }
 
+    private synchronized void restartThreadPools() {
+        if (threadPoolsShutDown) {
+            logger.debug("Creating thread pools shut down by a previous dispose");
+            messageDispatcher = newMessageDispatcher();
+            operationExecutor = newOperationExecutor();
+            refreshExecutor = newRefreshExecutor();
+            threadPoolsShutDown = false;
+        }
+    }
+
+    private PubNubMessageDispatcher newMessageDispatcher() {
+        return new PubNubMessageDispatcher(this, "august-pubnub-" + getThing().getUID().getId());
+    }
+
+    private ExecutorService newOperationExecutor() {
+        return Executors.newFixedThreadPool(OPERATION_POOL_SIZE,
+                new NamedThreadFactory("august-operations-" + getThing().getUID().getId(), true));
+    }
+
+    private ExecutorService newRefreshExecutor() {
+        return Executors.newFixedThreadPool(RefreshCoordinator.MAX_PARALLEL_REFRESHES,
+                new NamedThreadFactory("august-refresh-" + getThing().getUID().getId(), true));
+    }
+
     @Override
     public void handleConfigurationUpdate(Map<String, Object> configurationParameters) {
         super.handleConfigurationUpdate(configurationParameters);
@@ -219,17 +303,87 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
     }
 
     private void loginComplete() throws AugustException {
-        boolean loginOK = obtainNewSession(true);
+        long startNanos = System.nanoTime();
+        // Locks register their channel once, so channels dropped by a previous dispose() must be registered again
+        eventListeners.keySet().forEach(subscriptionManager::addChannel);
+        // PubNub only needs the user id, so connect it using the id of the previous session while renewing the session
+        @Nullable
+        String previousUserId = storage.get(STORAGE_KEY_USERID);
+        CompletableFuture<Void> pubNubInit = CompletableFuture.completedFuture(null);
+        if (previousUserId != null) {
+            pubNubInit = CompletableFuture.runAsync(() -> {
+                try {
+                    initPubNub(previousUserId);
+                } catch (AugustException e) {
+                    throw new CompletionException(e);
+                }
+            }, scheduler);
+        }
+
+        boolean loginOK;
+        try {
+            loginOK = obtainNewSession(true);
+        } catch (AugustException | RuntimeException e) {
+            // Let PubNub initialization settle before retrying, without masking the login failure
+            try {
+                awaitPubNubInit(pubNubInit);
+            } catch (AugustException | RuntimeException pubNubFailure) {
+                e.addSuppressed(pubNubFailure);
+            }
+            throw e;
+        }
+        awaitPubNubInit(pubNubInit);
         if (loginOK) {
-            messageSubscriber.init(storage.get(STORAGE_KEY_USERID), this, config.ecoSystem);
+            String userId = storage.get(STORAGE_KEY_USERID);
+            if (previousUserId == null || !previousUserId.equals(userId)) {
+                initPubNub(userId);
+            }
             doPoll();
             statusFuture = Optional.of(scheduler.scheduleWithFixedDelay(this::doPoll, config.refreshIntervalSeconds,
                     config.refreshIntervalSeconds, TimeUnit.SECONDS));
+            refreshCoordinator.start();
+            if (readiness.isDone()) {
+                logger.info("Account ready in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
         } else {
+            if (previousUserId != null) {
+                messageSubscriber.dispose();
+            }
             loginError();
         }
     }
 
+    private void initPubNub(String userId) throws AugustException {
+        messageSubscriber.init(userId, messageDispatcher, config.ecoSystem,
+                config.pubNubChannelGroup ? storage.get(STORAGE_KEY_INSTALLID) : null);
+        subscriptionManager.onSubscriberInitialized();
+    }
+
+    private void awaitPubNubInit(CompletableFuture<Void> pubNubInit) throws AugustException {
+        try {
+            pubNubInit.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AugustException) {
+                throw (AugustException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return future completed when the account is logged in and the lock list has been fetched
+     */
+    public CompletableFuture<Void> whenReady() {
+        return readiness;
+    }
+
+    /**
+     * Run the first poll of a lock, with a bounded number of first polls running at the same time
+     */
+    public void runInitialPoll(Runnable poll) {
+        initialPollExecutor.execute(poll);
+    }
+
     private void loginError() {
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR,
                 "Check email / phone / password / validation code");
@@ -265,8 +419,18 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
         // Ignore commands as none are supported
     }
 
+    /**
+     * @return locks listed for the account at the last successful fetch
+     */
     public Map<String, Lock> getLocks() {
-        return locks;
+        return lockList.get().getLocks();
+    }
+
+    /**
+     * @return snapshot of the locks listed for the account, with version and fetch time
+     */
+    public LockList getLockList() {
+        return lockList.get();
     }
 
     private void clearStorage() {
@@ -280,13 +444,51 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
 
     @Override
     public void dispose() {
+        subscriptionManager.dispose();
         messageSubscriber.dispose();
+        bridgeOnline.clear();
+        refreshCoordinator.stop();
+        synchronized (this) {
+            messageDispatcher.dispose();
+            bridgeQueues.clear();
+            operationExecutor.shutdownNow();
+            refreshExecutor.shutdownNow();
+            threadPoolsShutDown = true;
+        }
         stopScheduledUpdate();
         super.dispose();
     }
 
-    public synchronized void doPoll() {
+    /**
+     * Fetch the lock list, blocking until done
+     */
+    public void doPoll() {
+        refreshLocks().join();
+    }
 
+    /**
+     * Fetch the lock list. If a fetch is already in progress, no new fetch is started and the returned future is
+     * completed by the fetch in progress
+     *
+     * @return future completed with the lock list after the fetch, unchanged if the fetch failed
+     */
+    public CompletableFuture<LockList> refreshLocks() {
+        CompletableFuture<LockList> refresh = new CompletableFuture<>();
+        CompletableFuture<LockList> running = inFlightRefresh.compareAndExchange(null, refresh);
+        if (running != null) {
+            logger.debug("Lock list fetch already in progress, awaiting it");
+            return running;
+        }
+        try {
+            fetchLocks();
+        } finally {
+            inFlightRefresh.set(null);
+            refresh.complete(lockList.get());
+        }
+        return refresh;
+    }
+
+    private void fetchLocks() {
         logger.info("Polling for new account status/lock overview");
         try {
             if (isSessionExpired()) {
@@ -302,10 +504,25 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
                     new TypeToken<GetLocksResponse>() {
                     }.getType());
 
-            locks = getLocksResponse.entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> new Lock(entry.getValue())));
+            Map<String, Lock> fetched = getLocksResponse.entrySet().stream().collect(
+                    Collectors.toMap(Map.Entry::getKey, entry -> new Lock(entry.getKey(), entry.getValue())));
+            LockList previous = lockList.get();
+            LockList current = previous.next(fetched, System.currentTimeMillis());
+            lockList.set(current);
+            Map<String, Lock> locks = current.getLocks();
+            if (current.getVersion() != previous.getVersion()) {
+                logger.debug("Lock list changed, now version {}", current.getVersion());
+                refreshCoordinator.flagChangedLocks(previous.getLocks(), locks);
+            }
+            for (AugustLockHandler lockHandler : getLockHandlers()) {
+                Lock listed = locks.get(lockHandler.getLockId());
+                if (listed != null) {
+                    lockHandler.applyLockListing(listed);
+                }
+            }
             updateStatus(ThingStatus.ONLINE);
             logger.info("Fetching lock overview success, found {} lock(s)", locks.size());
+            readiness.complete(null);
         } catch (final RestCommunicationException e) {
             logger.warn("Error initializing data: {}, retrying at specified refreshInterval", e.getMessage());
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
@@ -329,6 +546,11 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
         return true;
     }
 
+    private Collection<AugustLockHandler> getLockHandlers() {
+        return eventListeners.values().stream().filter(AugustLockHandler.class::isInstance)
+                .map(AugustLockHandler.class::cast).collect(Collectors.toList());
+    }
+
     /**
      * Stops this thing's polling future
      */
@@ -341,10 +563,69 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
         });
     }
 
+    PubNubListener getMessageDispatcher() {
+        return messageDispatcher;
+    }
+
     public RestApiClient getApiBridge() {
         return restApiClient;
     }
 
+    public LockSnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+
+    /**
+     * Run a remote lock operation. A Connect bridge handles one operation at a time and rejects others, so operations
+     * for locks on the same bridge are run one after another while operations on different bridges run in parallel,
+     * at most {@link #OPERATION_POOL_SIZE} at the same time.
+     *
+     * @param bridgeId id of the bridge serving the lock, null if unknown. The operation is then not queued
+     * @param operation the operation, returning a stage that completes when the bridge is done with it
+     * @return future completing with the result of the operation
+     */
+    public <T> CompletableFuture<T> runOnBridge(@Nullable String bridgeId,
+            Supplier<? extends CompletionStage<T>> operation) {
+        if (bridgeId == null) {
+            return CompletableFuture.supplyAsync(operation, operationExecutor).thenCompose(stage -> stage);
+        }
+        SerialExecutor queue = bridgeQueues.computeIfAbsent(bridgeId, k -> new SerialExecutor(operationExecutor));
+        if (queue.getQueueSize() > 0) {
+            logger.debug("Bridge {} busy, queueing operation behind {} other(s)", bridgeId, queue.getQueueSize());
+        }
+        return queue.submit(operation);
+    }
+
+    /**
+     * @return true if the bridge is known to be offline
+     */
+    public boolean isBridgeOffline(@Nullable String bridgeId) {
+        return bridgeId != null && Boolean.FALSE.equals(bridgeOnline.get(bridgeId));
+    }
+
+    /**
+     * Update the online state of a Connect bridge, and notify the locks behind it if it changed
+     */
+    public void updateBridgeStatus(String bridgeId, boolean online) {
+        updateBridgeStatus(bridgeId, online, null);
+    }
+
+    /**
+     * Update the online state of a Connect bridge, and notify the locks behind it if it changed
+     *
+     * @param reportedBy lock whose details just reported the state, and so need no refresh if the bridge recovered
+     */
+    public void updateBridgeStatus(String bridgeId, boolean online, @Nullable AugustLockHandler reportedBy) {
+        Boolean previous = bridgeOnline.put(bridgeId, online);
+        if (previous == null || previous != online) {
+            logger.info("Connect bridge {} is {}", bridgeId, online ? "online" : "offline");
+            boolean recovered = online && previous != null;
+            eventListeners.values().stream().filter(AugustLockHandler.class::isInstance)
+                    .map(AugustLockHandler.class::cast).filter(h -> bridgeId.equals(h.getBridgeId()))
+                    .forEach(h -> h.onBridgeStatusChanged(online, recovered && h != reportedBy));
+        }
+    }
+
     @Override
     public void onAccessTokenUpdated(@Nullable String updatedAccessToken) {
         if (updatedAccessToken != null && !updatedAccessToken.isEmpty()) {
@@ -384,12 +665,24 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
         }
     }
 
+    @Override
+    public void onPushMessage(String channelName, JsonElement message, long timetoken) {
+        // Find correct handler
+        PubNubListener pubNubListener = eventListeners.get(channelName);
+        if (pubNubListener != null) {
+            pubNubListener.onPushMessage(channelName, message, timetoken);
+        } else {
+            logger.warn("No message listener on channel {}, discarding message", channelName);
+        }
+    }
+
     public void deregisterForEvents(AugustLockHandler augustLockHandler) {
         Optional<Map.Entry<String, PubNubListener>> first = eventListeners.entrySet().stream()
                 .filter(e -> e.getValue() == augustLockHandler).findFirst();
         first.ifPresent(e -> {
             String channelName = e.getKey();
-            messageSubscriber.removeListener(channelName);
+            subscriptionManager.removeChannel(channelName);
+            messageDispatcher.removeChannel(channelName);
             eventListeners.remove(channelName);
         });
         if (first.isEmpty()) {
@@ -399,7 +692,7 @@ public class AugustAccountHandler extends BaseBridgeHandler implements AccessTok
 
     public void registerForEvents(AugustLockHandler augustLockHandler, String channelName) {
         eventListeners.computeIfAbsent(channelName, k -> {
-            messageSubscriber.addListener(channelName);
+            subscriptionManager.addChannel(channelName);
             return augustLockHandler;
         });
     }
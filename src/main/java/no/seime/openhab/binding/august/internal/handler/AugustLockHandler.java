@@ -13,24 +13,32 @@
 package no.seime.openhab.binding.august.internal.handler;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
 import org.openhab.core.library.types.OpenClosedType;
 import org.openhab.core.library.types.QuantityType;
 import org.openhab.core.library.types.StringType;
+import org.openhab.core.library.unit.MetricPrefix;
 import org.openhab.core.library.unit.Units;
 import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
 import org.openhab.core.thing.binding.BaseThingHandler;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.RefreshType;
@@ -45,14 +53,22 @@ import com.google.gson.reflect.TypeToken;
 
 import no.seime.openhab.binding.august.internal.AugustException;
 import no.seime.openhab.binding.august.internal.BindingConstants;
+import no.seime.openhab.binding.august.internal.CoalescingCommandQueue;
+import no.seime.openhab.binding.august.internal.LatencyTracker;
+import no.seime.openhab.binding.august.internal.RollingStatistics;
 import no.seime.openhab.binding.august.internal.comm.PubNubListener;
 import no.seime.openhab.binding.august.internal.comm.RestApiClient;
+import no.seime.openhab.binding.august.internal.comm.RestCommunicationException;
 import no.seime.openhab.binding.august.internal.config.LockConfiguration;
 import no.seime.openhab.binding.august.internal.dto.AsyncLockStatusDTO;
+import no.seime.openhab.binding.august.internal.dto.BridgeStatusMessageDTO;
 import no.seime.openhab.binding.august.internal.dto.GetLockRequest;
 import no.seime.openhab.binding.august.internal.dto.GetLockResponse;
 import no.seime.openhab.binding.august.internal.dto.RemoteOperateLockRequest;
 import no.seime.openhab.binding.august.internal.dto.RemoteOperateLockResponse;
+import no.seime.openhab.binding.august.internal.handler.AdaptivePollInterval.Mode;
+import no.seime.openhab.binding.august.internal.model.Lock;
+import no.seime.openhab.binding.august.internal.model.LockSnapshot;
 
 /**
  * The {@link AugustLockHandler} is responsible for handling commands, which are
@@ -64,6 +80,13 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
     public static final String ERROR_MESSAGE_UNSUPPORTED_COMMAND = "Unsupported command {} for channel {}";
     public static final int LOCK_POLLING_SECONDS = 1800;
+    public static final int ASYNC_OPERATION_TIMEOUT_SECONDS = 30;
+    public static final int SIGNAL_STRENGTH_SAMPLES = 20;
+    public static final String BRIDGE_OFFLINE_MESSAGE = "Connect bridge is offline, lock cannot be operated remotely";
+
+    public static final String PROPERTY_TIME_TO_ONLINE = "timeToOnline";
+
+    public static final String SNAPSHOT_MESSAGE = "Showing last known state from before restart, not yet confirmed";
 
     private final Logger logger = LoggerFactory.getLogger(AugustLockHandler.class);
 
@@ -103,41 +126,196 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
     private static final Map<String, String> lockTypeToLockName = new ConcurrentHashMap<>();
 
-    // Map of userIds to human-readable names.
-    private final Map<String, String> userIdToName = new HashMap<>();
+    // Map of userIds to human-readable names. Written by lock detail fetches while push handlers read and snapshot it
+    private final Map<String, String> userIdToName = new ConcurrentHashMap<>();
 
     private Optional<ScheduledFuture<?>> statusFuture = Optional.empty();
 
+    // Ordering of applied push/REST state events, to drop duplicates and out of date events
+    private final EventWatermark eventWatermark = new EventWatermark();
+
+    // Lock operations are sent asynchronously, superseded operations are never sent. Null until initialized with an
+    // account handler
+    @Nullable
+    private CoalescingCommandQueue<RemoteOperateLockRequest.Operation> commandQueue;
+
+    // Last lock state reported by the cloud, used to answer refreshes and roll back optimistic updates
+    private final LockStateCache lockStateCache = new LockStateCache();
+
+    // Limits how often the lock is woken up by status queries
+    private WakeUpBudget wakeUpBudget;
+
+    // Time from a lock/unlock command is received until accepted by the server, and until confirmed by push message
+    private final LatencyTracker acceptedLatency = new LatencyTracker();
+    private final LatencyTracker confirmedLatency = new LatencyTracker();
+
+    @Nullable
+    private volatile CommandTiming commandTiming;
+
+    // Signal strength reported in operation results, lock to bridge and bridge to access point
+    private final RollingStatistics bluetoothRssi = new RollingStatistics(SIGNAL_STRENGTH_SAMPLES);
+    private final RollingStatistics wifiRssi = new RollingStatistics(SIGNAL_STRENGTH_SAMPLES);
+
+    private volatile long lastPollMillis = 0;
+
+    // Time the lock state was last confirmed, by push message or lock details
+    private volatile long lastConfirmedStateMillis = 0;
+
+    private final AtomicLong pollsExecuted = new AtomicLong();
+
+    private final AtomicLong pollsSkipped = new AtomicLong();
+
+    private volatile boolean pushConnected = false;
+
+    private final AdaptivePollInterval pollInterval = new AdaptivePollInterval();
+
+    private volatile @Nullable Mode publishedPollMode;
+
+    private volatile State doorState = UnDefType.UNDEF;
+
+    @Nullable
+    private LockSnapshotStore snapshotStore;
+
+    // Snapshot restored at initialize, until lock details are fetched
+    @Nullable
+    private LockSnapshot restoredSnapshot;
+
+    // Last snapshot saved or restored, to only write the storage when the state changed
+    @Nullable
+    private LockSnapshot savedSnapshot;
+
+    private long initializeNanos;
+
+    private volatile boolean timeToOnlineReported;
+
+    @Nullable
+    private CompletableFuture<Void> readinessFuture;
+
+    // Set while a poll is pending on the account coming online
+    private final AtomicBoolean waitingForAccount = new AtomicBoolean();
+
+    // Connect bridge serving this lock, if any
+    @Nullable
+    private volatile String bridgeId;
+
+    // Result of an async lock operation, completed by the remoteEvent push message
+    @Nullable
+    private volatile CompletableFuture<RemoteOperateLockResponse> pendingOperation;
+
+    // Action of the pending async operation, and its transaction id once the operation response has been received
+    @Nullable
+    private volatile String pendingAction;
+
+    @Nullable
+    private volatile String pendingTransactionId;
+
     @Override
     public void initialize() {
+        initializeNanos = System.nanoTime();
+        timeToOnlineReported = false;
+        waitingForAccount.set(false);
         updateStatus(ThingStatus.UNKNOWN);
         config = getConfigAs(LockConfiguration.class);
 
         logger.info("{} Initializing lock", config.lockId);
         stopScheduledUpdate(); // If any
 
-        // Workaround for testing - need to inject RestApiClient but having difficulties injecting the bridge handler in
-        // the
-        // tests
         Bridge bridge = getBridge();
-        if (bridge != null) {
-            AugustAccountHandler accountHandler = (AugustAccountHandler) bridge.getHandler();
-            if (accountHandler != null) {
-                restApiClient = accountHandler.getApiBridge();
-                this.handler = accountHandler;
-            }
+        AugustAccountHandler accountHandler = bridge != null ? (AugustAccountHandler) bridge.getHandler() : null;
+        if (accountHandler == null) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_UNINITIALIZED);
+            return;
         }
+        handler = accountHandler;
+        restApiClient = accountHandler.getApiBridge();
+
+        commandQueue = new CoalescingCommandQueue<>(scheduler, config.commandCoalescingMillis,
+                operation -> handler.runOnBridge(bridgeId, () -> operateLock(operation)));
+        wakeUpBudget = new WakeUpBudget(config.maxWakeUpsPerHour);
+
+        snapshotStore = handler.getSnapshotStore();
+        restoreSnapshot();
 
-        Objects.requireNonNull(restApiClient,
-                "RestApiClient is null - must be set either directly in constructor or fetched via getBridge().getHandler()");
-        statusFuture = Optional.of(scheduler.schedule(this::doPoll, 1, TimeUnit.SECONDS));
+        // Wait for the account to be logged in before fetching lock details
+        readinessFuture = handler.whenReady().thenRun(this::onAccountReady);
         logger.info("{} Lock init successful", config.lockId);
     }
 
+    private void onAccountReady() {
+        Lock listed = handler.getLocks().get(config.lockId);
+        if (listed != null) {
+            // Known from the account lock list, make the lock available before its details are fetched
+            applyLockListing(listed);
+            updateOnlineStatus(restoredSnapshot != null ? SNAPSHOT_MESSAGE : null);
+        }
+        // Spread initial polls of the locks of the account to avoid hitting the API with all at once
+        statusFuture = Optional.of(scheduler.schedule(() -> handler.runInitialPoll(this::doPoll),
+                PollJitter.initialDelayMillis(1000, handler.getLocks().size()), TimeUnit.MILLISECONDS));
+    }
+
+    private void updateOnlineStatus(@Nullable String description) {
+        if (handler != null && handler.isBridgeOffline(bridgeId)) {
+            // Cloud and push are reachable, but the lock cannot be operated until the Connect bridge is back
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, BRIDGE_OFFLINE_MESSAGE);
+            return;
+        }
+        if (description != null) {
+            updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE, description);
+        } else {
+            updateStatus(ThingStatus.ONLINE);
+        }
+        if (!timeToOnlineReported) {
+            timeToOnlineReported = true;
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - initializeNanos);
+            logger.info("{} Lock online {} ms after initialization", config.lockId, millis);
+            updateProperty(PROPERTY_TIME_TO_ONLINE, millis + " ms");
+        }
+    }
+
+    @Override
+    public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
+        AugustAccountHandler accountHandler = handler;
+        if (bridgeStatusInfo.getStatus() == ThingStatus.ONLINE && accountHandler != null
+                && accountHandler.isBridgeOffline(bridgeId)) {
+            // Account is back, but the lock cannot be operated until the Connect bridge is back as well
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, BRIDGE_OFFLINE_MESSAGE);
+        } else {
+            super.bridgeStatusChanged(bridgeStatusInfo);
+        }
+        if (bridgeStatusInfo.getStatus() == ThingStatus.ONLINE && waitingForAccount.compareAndSet(true, false)) {
+            logger.info("{} Account is online, polling lock", config.lockId);
+            handler.runInitialPoll(this::doPoll);
+        }
+    }
+
+    @Override
+    public void handleRemoval() {
+        LockSnapshotStore store = snapshotStore;
+        if (store != null) {
+            store.remove(config.lockId);
+        }
+        super.handleRemoval();
+    }
+
     @Override
     public void dispose() {
-        handler.deregisterForEvents(this);
+        AugustAccountHandler accountHandler = handler;
+        if (accountHandler != null) {
+            accountHandler.deregisterForEvents(this);
+        }
+        CompletableFuture<Void> accountReady = readinessFuture;
+        if (accountReady != null) {
+            accountReady.cancel(false);
+        }
+        waitingForAccount.set(false);
 
+        if (commandQueue != null) {
+            commandQueue.cancel();
+        }
+        CompletableFuture<RemoteOperateLockResponse> operation = pendingOperation;
+        if (operation != null) {
+            operation.cancel(false);
+        }
         stopScheduledUpdate();
         super.dispose();
     }
@@ -147,36 +325,214 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
         Bridge bridge = getBridge();
 
         if (bridge != null && bridge.getStatus() != ThingStatus.ONLINE) {
-            logger.warn("{} Not polling lock since bridge isn't online yet. Bridge reported status {}", config.lockId,
-                    getBridge().getStatus());
+            logger.info("{} Not polling lock since account isn't online. Account reported status {}, waiting for it",
+                    config.lockId, bridge.getStatus());
             updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
-            // Schedule reconnect retry every 5 seconds
-            statusFuture = Optional.of(scheduler.schedule(this::doPoll, 5, TimeUnit.SECONDS));
-
-            return;
+            // Polled again by bridgeStatusChanged when the account comes online
+            waitingForAccount.set(true);
+            if (bridge.getStatus() != ThingStatus.ONLINE || !waitingForAccount.compareAndSet(true, false)) {
+                return;
+            }
         }
 
         logger.info("{} Polling for updated lock status", config.lockId);
         try {
             final GetLockRequest getLockRequest = new GetLockRequest(config.lockId);
 
-            lock = restApiClient.sendRequest(getLockRequest, new TypeToken<GetLockResponse>() {
-            }.getType());
+            applyLockDetails(restApiClient.sendRequest(getLockRequest, new TypeToken<GetLockResponse>() {
+            }.getType()));
+        } catch (AugustException ex) {
+            onLockDetailsError(ex);
+            // Retry later. Once registered for events, refreshes are scheduled by the account handler
+            statusFuture = Optional.of(scheduler.schedule(this::doPoll,
+                    PollJitter.jitteredIntervalMillis(TimeUnit.SECONDS.toMillis(LOCK_POLLING_SECONDS)),
+                    TimeUnit.MILLISECONDS));
+        }
+    }
 
-            parseUserMap(lock);
-            updateThingProperties(lock);
+    /**
+     * Update channels and properties from fetched lock details, and register for push messages
+     */
+    synchronized void applyLockDetails(GetLockResponse lockDetails) {
+        onPollExecuted();
+        lock = lockDetails;
+        if (lock.lockStatus != null && lock.lockStatus.statusTimestamp != null) {
+            recordConfirmedState(lock.lockStatus.statusTimestamp.toInstant().toEpochMilli());
+        }
+        parseUserMap(lock);
+        updateThingProperties(lock);
+        if (lock.batteryPercentage != null) {
+            wakeUpBudget.setBatteryLevel(lock.batteryPercentage);
+        }
+        if (lock.bridge != null && lock.bridge.id != null) {
+            bridgeId = lock.bridge.id;
+            if (lock.bridge.status != null && lock.bridge.status.current != null) {
+                // These details are current, so this lock needs no refresh if the bridge recovered
+                handler.updateBridgeStatus(lock.bridge.id, "online".equals(lock.bridge.status.current), this);
+            }
+        }
 
-            thing.getChannels().forEach(e -> handleCommandInternal(e.getUID(), null));
-            // Register listener
-            handler.registerForEvents(this, lock.pubsubChannel);
-        } catch (AugustException ex) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
-                    "Error retrieving data from server: " + ex.getMessage());
-            // Undef all channels if error
-            thing.getChannels().forEach(e -> updateState(e.getUID(), UnDefType.UNDEF));
+        // Do not let a late poll response overwrite the state of a newer poll response
+        boolean lockStatusCurrent = lock.lockStatus == null || acceptEvent(EventWatermark.Source.REST,
+                EventWatermark.toTimetoken(lock.lockStatus.statusTimestamp));
+        thing.getChannels().stream().filter(e -> lockStatusCurrent || !isLockStatusChannel(e.getUID().getId()))
+                .forEach(e -> handleCommandInternal(e.getUID(), null));
+        // Register listener
+        handler.registerForEvents(this, lock.pubsubChannel);
+        if ((pushConnected && getThing().getStatus() != ThingStatus.ONLINE)
+                || SNAPSHOT_MESSAGE.equals(getThing().getStatusInfo().getDescription())) {
+            // Recovered from an earlier fetch error, or state restored from snapshot is now confirmed
+            updateOnlineStatus(null);
+        }
+        restoredSnapshot = null;
+        saveSnapshot();
+    }
+
+    /**
+     * Restore channels, properties and users from the snapshot saved by a previous run. The lock state is not trusted
+     * as current until confirmed by push or lock details
+     */
+    private void restoreSnapshot() {
+        LockSnapshotStore store = snapshotStore;
+        LockSnapshot snapshot = store != null ? store.load(config.lockId) : null;
+        if (snapshot == null) {
+            return;
+        }
+        OnOffType lockState;
+        OpenClosedType restoredDoorState;
+        try {
+            lockState = snapshot.lockState != null ? OnOffType.valueOf(snapshot.lockState) : null;
+            restoredDoorState = snapshot.doorState != null ? OpenClosedType.valueOf(snapshot.doorState) : null;
+        } catch (IllegalArgumentException e) {
+            logger.warn("{} Discarding lock snapshot with invalid state: {}", config.lockId, e.getMessage());
+            store.remove(config.lockId);
+            return;
+        }
+        logger.debug("{} Restoring lock state from snapshot", config.lockId);
+        restoredSnapshot = snapshot;
+        savedSnapshot = snapshot;
+        userIdToName.putAll(snapshot.users);
+        Map<String, String> properties = editProperties();
+        properties.putAll(snapshot.properties);
+        updateProperties(properties);
+        if (lockState != null) {
+            updateState(BindingConstants.CHANNEL_LOCK_STATE, lockState);
+        }
+        if (restoredDoorState != null) {
+            doorState = restoredDoorState;
+            updateState(BindingConstants.CHANNEL_DOOR_STATE, doorState);
+        }
+        if (snapshot.batteryPercentage != null) {
+            updateState(BindingConstants.CHANNEL_BATTERY,
+                    new QuantityType<>(snapshot.batteryPercentage * 100, Units.PERCENT));
+        }
+    }
+
+    private void saveSnapshot() {
+        LockSnapshotStore store = snapshotStore;
+        if (store == null) {
+            return;
+        }
+        LockSnapshot snapshot = new LockSnapshot();
+        snapshot.lockState = toSnapshotValue(lockStateCache.getLockState());
+        snapshot.doorState = toSnapshotValue(doorState);
+        LockSnapshot restored = restoredSnapshot;
+        if (lock != null) {
+            snapshot.batteryPercentage = lock.batteryPercentage;
+        }
+        if (restored != null) {
+            // Keep restored values not yet received from the cloud
+            if (snapshot.lockState == null) {
+                snapshot.lockState = restored.lockState;
+            }
+            if (snapshot.doorState == null) {
+                snapshot.doorState = restored.doorState;
+            }
+            if (snapshot.batteryPercentage == null) {
+                snapshot.batteryPercentage = restored.batteryPercentage;
+            }
+        }
+        snapshot.users = new HashMap<>(userIdToName);
+        snapshot.properties = new HashMap<>(getThing().getProperties());
+        snapshot.confirmedMillis = lastConfirmedStateMillis;
+        LockSnapshot saved = savedSnapshot;
+        if (saved != null && saved.hasSameState(snapshot)) {
+            return;
+        }
+        store.save(config.lockId, snapshot);
+        savedSnapshot = snapshot;
+    }
+
+    private static @Nullable String toSnapshotValue(State state) {
+        return state instanceof UnDefType ? null : state.toString();
+    }
+
+    synchronized void onLockDetailsError(AugustException ex) {
+        onPollExecuted();
+        updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR,
+                "Error retrieving data from server: " + ex.getMessage());
+        // Undef all channels if error
+        thing.getChannels().forEach(e -> updateState(e.getUID(), UnDefType.UNDEF));
+    }
+
+    String getLockId() {
+        return config.lockId;
+    }
+
+    /**
+     * @return time of the last poll of lock details, executed or skipped
+     */
+    long getLastPollMillis() {
+        return lastPollMillis;
+    }
+
+    private void onPollExecuted() {
+        lastPollMillis = System.currentTimeMillis();
+        pollInterval.onPoll();
+        updateState(BindingConstants.CHANNEL_POLLS_EXECUTED, new DecimalType(pollsExecuted.incrementAndGet()));
+    }
+
+    /**
+     * Skip a scheduled poll of lock details, postponing the next one by a poll interval
+     */
+    void onPollSkipped() {
+        lastPollMillis = System.currentTimeMillis();
+        logger.debug("{} Lock state confirmed within {}s, skipping poll", config.lockId, config.pollFreshnessSeconds);
+        updateState(BindingConstants.CHANNEL_POLLS_SKIPPED, new DecimalType(pollsSkipped.incrementAndGet()));
+    }
+
+    /**
+     * @return true if the lock state has been confirmed within the configured poll freshness target
+     */
+    boolean isStateFresh(long now) {
+        return config.pollFreshnessSeconds > 0
+                && now - lastConfirmedStateMillis < TimeUnit.SECONDS.toMillis(config.pollFreshnessSeconds);
+    }
+
+    private void recordConfirmedState(long confirmedMillis) {
+        lastConfirmedStateMillis = Math.max(lastConfirmedStateMillis, confirmedMillis);
+    }
+
+    /**
+     * @return time between polls of lock details, depending on the health of the push connection
+     */
+    long getPollIntervalMillis() {
+        long interval = pollInterval.getIntervalMillis();
+        updatePollMode();
+        return interval;
+    }
+
+    Mode getPollMode() {
+        return pollInterval.getMode();
+    }
+
+    private void updatePollMode() {
+        Mode mode = pollInterval.getMode();
+        if (mode != publishedPollMode) {
+            logger.debug("{} Poll mode {}", config.lockId, mode);
+            publishedPollMode = mode;
+            updateState(BindingConstants.CHANNEL_POLL_MODE, new StringType(mode.name()));
         }
-        // Do poll to catch up with any message not received via PubNub
-        statusFuture = Optional.of(scheduler.schedule(this::doPoll, LOCK_POLLING_SECONDS, TimeUnit.SECONDS));
     }
 
     private void updateThingProperties(GetLockResponse lockResponse) {
@@ -198,6 +554,24 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
         updateThing(editThing().withProperties(properties).build());
     }
 
+    /**
+     * Update properties from the account lock list
+     */
+    void applyLockListing(Lock listed) {
+        Map<String, String> properties = editProperties();
+        putIfNotNull(properties, "macAddress", listed.getMacAddress());
+        putIfNotNull(properties, "lockName", listed.getLockName());
+        putIfNotNull(properties, "houseName", listed.getHouseName());
+        putIfNotNull(properties, "houseId", listed.getHouseId());
+        updateProperties(properties);
+    }
+
+    private static void putIfNotNull(Map<String, String> properties, String key, @Nullable String value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+
     private void updateThingProperties(RemoteOperateLockResponse.Info info) {
         Map<String, String> properties = editProperties();
         if (info.bridgeSerialNumber != null) {
@@ -220,6 +594,10 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
     @Override
     public void handleCommand(final ChannelUID channelUID, final @Nullable Command command) {
+        if (lock == null && command instanceof RefreshType) {
+            // Initialized from the account lock list, channels are updated once lock details are fetched
+            return;
+        }
         handleCommandInternal(channelUID, command);
     }
 
@@ -240,18 +618,79 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
             case BindingConstants.CHANNEL_UNLOCKED_BY_USER:
                 // No support for RefreshType
                 break;
+            case BindingConstants.CHANNEL_DISCARDED_DUPLICATE_EVENTS:
+                handleCounterCommand(channelUID, command, eventWatermark.getDuplicateCount());
+                break;
+            case BindingConstants.CHANNEL_DISCARDED_STALE_EVENTS:
+                handleCounterCommand(channelUID, command, eventWatermark.getStaleCount());
+                break;
+            case BindingConstants.CHANNEL_WAKE_UPS_AVOIDED:
+                handleCounterCommand(channelUID, command, wakeUpBudget.getAvoidedCount());
+                break;
+            case BindingConstants.CHANNEL_POLLS_EXECUTED:
+                handleCounterCommand(channelUID, command, pollsExecuted.get());
+                break;
+            case BindingConstants.CHANNEL_POLLS_SKIPPED:
+                handleCounterCommand(channelUID, command, pollsSkipped.get());
+                break;
+            case BindingConstants.CHANNEL_POLL_MODE:
+                if (command == null || command instanceof RefreshType) {
+                    updateState(channelUID, new StringType(pollInterval.getMode().name()));
+                } else {
+                    logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
+                }
+                break;
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY:
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P50:
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P95:
+            case BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY:
+            case BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY_P50:
+            case BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY_P95:
+                if (command == null || command instanceof RefreshType) {
+                    updateState(channelUID, getLatencyState(channelUID.getId()));
+                } else {
+                    logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
+                }
+                break;
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI:
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_MIN:
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_AVG:
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_MAX:
+            case BindingConstants.CHANNEL_WIFI_RSSI:
+            case BindingConstants.CHANNEL_WIFI_RSSI_MIN:
+            case BindingConstants.CHANNEL_WIFI_RSSI_AVG:
+            case BindingConstants.CHANNEL_WIFI_RSSI_MAX:
+                if (command == null || command instanceof RefreshType) {
+                    updateState(channelUID, getSignalStrengthState(channelUID.getId()));
+                } else {
+                    logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
+                }
+                break;
             default:
                 logger.debug("{} Received command on unknown channel {}, ignoring", config.lockId, channelUID.getId());
         }
     }
 
+    private boolean isLockStatusChannel(String channelId) {
+        return BindingConstants.CHANNEL_LOCK_STATE.equals(channelId)
+                || BindingConstants.CHANNEL_DOOR_STATE.equals(channelId);
+    }
+
+    private void handleCounterCommand(ChannelUID channelUID, Command command, long value) {
+        if (command == null || command instanceof RefreshType) {
+            updateState(channelUID, new DecimalType(value));
+        } else {
+            logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
+        }
+    }
+
     private void handleDoorStateCommand(ChannelUID channelUID, Command command) {
         if (command == null || command instanceof RefreshType) {
             if (lock.lockStatus.doorStatus != null) {
                 logger.info("{} Updating door state channel with cloud state", config.lockId);
-                updateState(channelUID, parseDoorState(lock.lockStatus.doorStatus));
+                updateDoorState(parseDoorState(lock.lockStatus.doorStatus));
             } else {
-                updateState(channelUID, UnDefType.UNDEF);
+                updateDoorState(UnDefType.UNDEF);
             }
         } else {
             logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
@@ -259,26 +698,303 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
     }
 
     private void handleLockStateCommand(ChannelUID channelUID, Command command) {
+        CoalescingCommandQueue<RemoteOperateLockRequest.Operation> commandQueue = this.commandQueue;
         if (command == null) {
             logger.info("{} Updating lock state channel with cloud state", config.lockId);
-            updateState(channelUID, parseLockState(lock.lockStatus.lockStatus));
-        } else if (command instanceof OnOffType || command instanceof RefreshType) {
-            try {
-                logger.info("{} Querying lock/performing operation for lock state", config.lockId);
-                final RemoteOperateLockRequest operateLockRequest = new RemoteOperateLockRequest(config.lockId,
-                        getOperationFromCommand(command));
-                restApiClient.sendRequest(operateLockRequest, new TypeToken<RemoteOperateLockResponse>() {
-                }.getType());
-            } catch (AugustException e) {
-                logger.warn("{} Error contacting lock", config.lockId, e);
-                updateState(channelUID, UnDefType.UNDEF);
+            updateLockState(parseLockState(lock.lockStatus.lockStatus));
+        } else if (commandQueue == null) {
+            logger.debug("{} Lock is not initialized, ignoring command {}", config.lockId, command);
+        } else if (command instanceof OnOffType) {
+            RemoteOperateLockRequest.Operation operation = getOperationFromCommand(command);
+            if (commandQueue.isIdle() && isRedundant(operation)) {
+                logger.debug("{} Lock is already in requested state {}, not operating lock", config.lockId, command);
+                updateState(channelUID, lockStateCache.getLockState());
+                return;
+            }
+            commandTiming = new CommandTiming((OnOffType) command);
+            if (config.optimisticUpdates) {
+                logger.debug("{} Optimistically setting lock state to {}", config.lockId, command);
+                updateState(channelUID, (OnOffType) command);
+            }
+            commandQueue.submit(operation);
+        } else if (command instanceof RefreshType) {
+            if (lockStateCache.isFresh(config.refreshCacheSeconds)) {
+                logger.debug("{} Refreshing lock state from cache", config.lockId);
+                updateState(channelUID, lockStateCache.getLockState());
+            } else if (!commandQueue.submitIfIdle(RemoteOperateLockRequest.Operation.STATUS)) {
+                logger.debug("{} Lock operation already pending, status will be reported by it", config.lockId);
             }
-
         } else {
             logger.debug(ERROR_MESSAGE_UNSUPPORTED_COMMAND, command, channelUID);
         }
     }
 
+    /**
+     * Send a lock operation
+     *
+     * @return future completing when the operation has completed, or failed
+     */
+    private CompletableFuture<Void> operateLock(RemoteOperateLockRequest.Operation operation) {
+        if (handler.isBridgeOffline(bridgeId)) {
+            logger.warn("{} Not performing operation {}, {}", config.lockId, operation, BRIDGE_OFFLINE_MESSAGE);
+            if (operation != RemoteOperateLockRequest.Operation.STATUS) {
+                commandTiming = null;
+                handleOperationFailure(operation);
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (operation == RemoteOperateLockRequest.Operation.STATUS
+                && lockStateCache.isFresh(config.refreshCacheSeconds)) {
+            // Lock state was received while the query was queued, or by a concurrent refresh
+            logger.debug("{} Lock state is fresh, skipping status query", config.lockId);
+            updateState(BindingConstants.CHANNEL_LOCK_STATE, lockStateCache.getLockState());
+            return CompletableFuture.completedFuture(null);
+        }
+        if (isRedundant(operation)) {
+            // Earlier operation or push message already brought the lock to the requested state
+            logger.debug("{} Lock is already in state requested by {}, not operating lock", config.lockId, operation);
+            updateState(BindingConstants.CHANNEL_LOCK_STATE, lockStateCache.getLockState());
+            commandTiming = null;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (operation == RemoteOperateLockRequest.Operation.STATUS) {
+            if (!wakeUpBudget.tryAcquire()) {
+                logger.info("{} Status query exceeds wake-up budget of {} per hour, using last known lock state",
+                        config.lockId, wakeUpBudget.getWakeUpsPerHour());
+                updateState(BindingConstants.CHANNEL_WAKE_UPS_AVOIDED, new DecimalType(wakeUpBudget.getAvoidedCount()));
+                if (lockStateCache.getLockState() != UnDefType.UNDEF) {
+                    updateState(BindingConstants.CHANNEL_LOCK_STATE, lockStateCache.getLockState());
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        } else {
+            wakeUpBudget.consume();
+        }
+        boolean async = config.asyncOperations;
+        CompletableFuture<RemoteOperateLockResponse> completion = new CompletableFuture<>();
+        if (async) {
+            // Set before sending, the push message may arrive before the response
+            pendingAction = operation.getUrlWord();
+            pendingTransactionId = null;
+            pendingOperation = completion;
+        }
+        try {
+            logger.info("{} Querying lock/performing operation {} for lock state", config.lockId, operation);
+            final RemoteOperateLockRequest operateLockRequest = new RemoteOperateLockRequest(config.lockId,
+                    operation, async);
+            RemoteOperateLockResponse response = restApiClient.sendRequest(operateLockRequest,
+                    new TypeToken<RemoteOperateLockResponse>() {
+                    }.getType());
+            if (operation != RemoteOperateLockRequest.Operation.STATUS) {
+                recordCommandAccepted();
+            }
+            if (async && response != null && response.info != null && response.info.context != null) {
+                pendingTransactionId = response.info.context.transactionId;
+            }
+            if (!async) {
+                // Apply the result right away, the push event that follows carries the same state
+                if (response != null) {
+                    logger.debug("{} Updating channels from operation response", config.lockId);
+                    applyRemoteOperateResult(response);
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+        } catch (AugustException e) {
+            logger.warn("{} Error contacting lock", config.lockId, e);
+            if (operation != RemoteOperateLockRequest.Operation.STATUS) {
+                commandTiming = null;
+            }
+            clearPendingOperation(completion);
+            handleOperationFailure(operation);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        logger.debug("{} Operation {} accepted, waiting for result via push", config.lockId, operation);
+        return completion.orTimeout(ASYNC_OPERATION_TIMEOUT_SECONDS, TimeUnit.SECONDS).handleAsync((r, e) -> {
+            clearPendingOperation(completion);
+            if (e != null && !(e instanceof CancellationException)) {
+                logger.info("{} No result received for operation {} ({}), fetching lock status", config.lockId,
+                        operation, e.getMessage());
+                refreshLockStatus(operation);
+            }
+            return null;
+        }, scheduler);
+    }
+
+    /**
+     * @return true if skipping redundant operations is enabled and the lock is known to already be in the state the
+     *         operation would bring it to
+     */
+    private boolean isRedundant(RemoteOperateLockRequest.Operation operation) {
+        if (!config.skipRedundantOperations || operation == RemoteOperateLockRequest.Operation.STATUS
+                || !lockStateCache.isFresh(config.refreshCacheSeconds)) {
+            return false;
+        }
+        State targetState = operation == RemoteOperateLockRequest.Operation.LOCK ? OnOffType.ON : OnOffType.OFF;
+        return targetState.equals(lockStateCache.getLockState());
+    }
+
+    private void recordCommandAccepted() {
+        CommandTiming timing = commandTiming;
+        if (timing != null && !timing.accepted) {
+            timing.accepted = true;
+            acceptedLatency.record(timing.getElapsedMillis());
+            logger.debug("{} Lock command accepted after {} ms", config.lockId, acceptedLatency.getLatest());
+            updateLatencyChannels();
+        }
+    }
+
+    /**
+     * Called with lock states reported via push, completes the timing of a command if this is the requested state
+     */
+    private void recordCommandConfirmed(State reportedLockState) {
+        CommandTiming timing = commandTiming;
+        if (timing != null && timing.targetState.equals(reportedLockState)) {
+            commandTiming = null;
+            confirmedLatency.record(timing.getElapsedMillis());
+            logger.debug("{} Lock command confirmed after {} ms", config.lockId, confirmedLatency.getLatest());
+            updateLatencyChannels();
+        }
+    }
+
+    private void updateLatencyChannels() {
+        for (String channelId : List.of(BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY,
+                BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P50,
+                BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P95,
+                BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY,
+                BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY_P50,
+                BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY_P95)) {
+            updateState(channelId, getLatencyState(channelId));
+        }
+    }
+
+    private State getLatencyState(String channelId) {
+        switch (channelId) {
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY:
+                return toLatencyState(acceptedLatency, acceptedLatency::getLatest);
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P50:
+                return toLatencyState(acceptedLatency, () -> acceptedLatency.getPercentile(50));
+            case BindingConstants.CHANNEL_COMMAND_ACCEPTED_LATENCY_P95:
+                return toLatencyState(acceptedLatency, () -> acceptedLatency.getPercentile(95));
+            case BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY:
+                return toLatencyState(confirmedLatency, confirmedLatency::getLatest);
+            case BindingConstants.CHANNEL_COMMAND_CONFIRMED_LATENCY_P50:
+                return toLatencyState(confirmedLatency, () -> confirmedLatency.getPercentile(50));
+            default:
+                return toLatencyState(confirmedLatency, () -> confirmedLatency.getPercentile(95));
+        }
+    }
+
+    private State toLatencyState(LatencyTracker tracker, LongSupplier millis) {
+        if (!tracker.hasSamples()) {
+            return UnDefType.UNDEF;
+        }
+        return new QuantityType<>(millis.getAsLong(), MetricPrefix.MILLI(Units.SECOND));
+    }
+
+    private void updateSignalStrength(RemoteOperateLockResponse.Info info) {
+        if (info.rssi != null) {
+            bluetoothRssi.record(info.rssi);
+            for (String channelId : List.of(BindingConstants.CHANNEL_BLUETOOTH_RSSI,
+                    BindingConstants.CHANNEL_BLUETOOTH_RSSI_MIN, BindingConstants.CHANNEL_BLUETOOTH_RSSI_AVG,
+                    BindingConstants.CHANNEL_BLUETOOTH_RSSI_MAX)) {
+                updateState(channelId, getSignalStrengthState(channelId));
+            }
+        }
+        if (info.wlanRSSI != null) {
+            wifiRssi.record(info.wlanRSSI);
+            for (String channelId : List.of(BindingConstants.CHANNEL_WIFI_RSSI, BindingConstants.CHANNEL_WIFI_RSSI_MIN,
+                    BindingConstants.CHANNEL_WIFI_RSSI_AVG, BindingConstants.CHANNEL_WIFI_RSSI_MAX)) {
+                updateState(channelId, getSignalStrengthState(channelId));
+            }
+        }
+    }
+
+    private State getSignalStrengthState(String channelId) {
+        switch (channelId) {
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI:
+                return toSignalStrengthState(bluetoothRssi, bluetoothRssi.getLatest());
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_MIN:
+                return toSignalStrengthState(bluetoothRssi, bluetoothRssi.getMin());
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_AVG:
+                return toSignalStrengthState(bluetoothRssi, bluetoothRssi.getAverage());
+            case BindingConstants.CHANNEL_BLUETOOTH_RSSI_MAX:
+                return toSignalStrengthState(bluetoothRssi, bluetoothRssi.getMax());
+            case BindingConstants.CHANNEL_WIFI_RSSI:
+                return toSignalStrengthState(wifiRssi, wifiRssi.getLatest());
+            case BindingConstants.CHANNEL_WIFI_RSSI_MIN:
+                return toSignalStrengthState(wifiRssi, wifiRssi.getMin());
+            case BindingConstants.CHANNEL_WIFI_RSSI_AVG:
+                return toSignalStrengthState(wifiRssi, wifiRssi.getAverage());
+            default:
+                return toSignalStrengthState(wifiRssi, wifiRssi.getMax());
+        }
+    }
+
+    private State toSignalStrengthState(RollingStatistics statistics, Number value) {
+        if (!statistics.hasSamples()) {
+            return UnDefType.UNDEF;
+        }
+        return new QuantityType<>(value, Units.DECIBEL_MILLIWATTS);
+    }
+
+    private void clearPendingOperation(CompletableFuture<RemoteOperateLockResponse> operation) {
+        if (pendingOperation == operation) {
+            pendingOperation = null;
+        }
+    }
+
+    /**
+     * Fallback when the result of an async operation was not received, fetch the lock status instead
+     */
+    private void refreshLockStatus(RemoteOperateLockRequest.Operation operation) {
+        try {
+            GetLockResponse details = restApiClient.sendRequest(new GetLockRequest(config.lockId),
+                    new TypeToken<GetLockResponse>() {
+                    }.getType());
+            // Same lock as applyLockDetails, so a concurrent poll response is not mixed with this one
+            synchronized (this) {
+                lock = details;
+                if (lock.lockStatus != null && lock.lockStatus.statusTimestamp != null) {
+                    recordConfirmedState(lock.lockStatus.statusTimestamp.toInstant().toEpochMilli());
+                }
+                if (lock.lockStatus == null || acceptEvent(EventWatermark.Source.REST,
+                        EventWatermark.toTimetoken(lock.lockStatus.statusTimestamp))) {
+                    handleCommandInternal(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), null);
+                    handleCommandInternal(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_DOOR_STATE), null);
+                }
+            }
+        } catch (AugustException e) {
+            logger.warn("{} Error fetching lock status", config.lockId, e);
+            handleOperationFailure(operation);
+        }
+    }
+
+    private void handleOperationFailure(RemoteOperateLockRequest.Operation operation) {
+        CoalescingCommandQueue<RemoteOperateLockRequest.Operation> commandQueue = this.commandQueue;
+        if (commandQueue != null && commandQueue.hasPending()) {
+            // A newer operation will report the lock state
+            return;
+        }
+        if (config.optimisticUpdates && operation != RemoteOperateLockRequest.Operation.STATUS) {
+            logger.debug("{} Rolling back optimistic lock state to {}", config.lockId,
+                    lockStateCache.getLockState());
+            updateState(BindingConstants.CHANNEL_LOCK_STATE, lockStateCache.getLockState());
+        } else {
+            updateState(BindingConstants.CHANNEL_LOCK_STATE, UnDefType.UNDEF);
+        }
+    }
+
+    private void updateLockState(State lockState) {
+        lockStateCache.update(lockState);
+        updateState(BindingConstants.CHANNEL_LOCK_STATE, lockState);
+    }
+
+    private void updateDoorState(State newDoorState) {
+        doorState = newDoorState;
+        updateState(BindingConstants.CHANNEL_DOOR_STATE, newDoorState);
+    }
+
     private void handleBatteryCommand(ChannelUID channelUID, Command command) {
         if (command instanceof RefreshType || command == null) {
             updateState(channelUID, new QuantityType<>(lock.batteryPercentage * 100, Units.PERCENT));
@@ -313,28 +1029,44 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
     @Override
     public void onPubNubConnect(String channelName) {
         logger.info("{} PubNub connected", lock.lockId);
-        updateStatus(ThingStatus.ONLINE);
+        pushConnected = true;
+        pollInterval.setPushConnected(true);
+        updatePollMode();
+        updateOnlineStatus(null);
     }
 
     @Override
     public void onPubNubDisconnect(String channelName) {
         logger.info("{} PubNub disconnected", lock.lockId);
+        pushConnected = false;
+        pollInterval.setPushConnected(false);
+        updatePollMode();
+        // Lock details are polled more often by the account handler until push is reconnected
         stopScheduledUpdate();
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, "Server push message connection lost");
     }
 
     @Override
     public void onPushMessage(String channelName, JsonElement message) {
+        onPushMessage(channelName, message, EventWatermark.UNKNOWN);
+    }
+
+    @Override
+    public void onPushMessage(String channelName, JsonElement message, long timetoken) {
 
         try {
             logger.info("{} Received pubsub message {}", lock.lockId, gson.toJson(message));
+            pollInterval.onPushActivity();
+            updatePollMode();
+            boolean current = acceptEvent(EventWatermark.Source.PUSH, timetoken);
             JsonElement eventType = message.getAsJsonObject().get("remoteEvent");
             if (eventType != null) {
-                handleRemoteEventPushMessage(message, eventType);
-            } else {
+                // Also handled if redelivered or out of order, as it may carry the result of a pending operation
+                handleRemoteEventPushMessage(message, eventType, current);
+            } else if (current) {
 
                 if (message.getAsJsonObject().has("bridgeID")) {
-                    logger.debug("Skipping bridge status push message");
+                    handleBridgeStatusPushMessage(message);
                 } else {
 
                     handleSimplePushMessage(message);
@@ -347,8 +1079,48 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
         }
     }
 
+    /**
+     * Check an event against the high-water mark of applied events from the same source
+     *
+     * @return true if the event is not older than the current state and should be applied
+     */
+    private boolean acceptEvent(EventWatermark.Source source, long timestamp) {
+        switch (eventWatermark.offer(source, timestamp)) {
+            case DUPLICATE:
+                logger.debug("{} Discarding duplicate event with timestamp {}", config.lockId, timestamp);
+                updateState(BindingConstants.CHANNEL_DISCARDED_DUPLICATE_EVENTS,
+                        new DecimalType(eventWatermark.getDuplicateCount()));
+                return false;
+            case STALE:
+                logger.debug("{} Discarding event with timestamp {} older than current state", config.lockId,
+                        timestamp);
+                updateState(BindingConstants.CHANNEL_DISCARDED_STALE_EVENTS,
+                        new DecimalType(eventWatermark.getStaleCount()));
+                return false;
+            default:
+                return true;
+        }
+    }
+
     ScheduledFuture<?> unlockCommandStatus = null;
 
+    /**
+     * Timing of the latest lock/unlock command
+     */
+    private static class CommandTiming {
+        private final long startNanos = System.nanoTime();
+        private final State targetState;
+        private volatile boolean accepted = false;
+
+        CommandTiming(State targetState) {
+            this.targetState = targetState;
+        }
+
+        long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+
     State previousLockState = UnDefType.UNDEF;
 
     State previousDoorState = UnDefType.UNDEF;
@@ -359,7 +1131,9 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
         if (asyncStatus.lockState != null) {
             State newLockState = parseLockState(asyncStatus.lockState);
-            updateState(BindingConstants.CHANNEL_LOCK_STATE, newLockState);
+            updateLockState(newLockState);
+            recordCommandConfirmed(newLockState);
+            recordConfirmedState(System.currentTimeMillis());
 
             State newDoorState = parseDoorState(asyncStatus.doorState);
             if ((!previousDoorState.equals(newDoorState) && newDoorState != UnDefType.UNDEF)
@@ -390,9 +1164,51 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
         if (asyncStatus.doorState != null) {
             State updatedDoorState = parseDoorState(asyncStatus.doorState);
-            updateState(BindingConstants.CHANNEL_DOOR_STATE, updatedDoorState);
+            updateDoorState(updatedDoorState);
             previousDoorState = updatedDoorState;
         }
+        saveSnapshot();
+    }
+
+    private void handleBridgeStatusPushMessage(JsonElement message) {
+        BridgeStatusMessageDTO bridgeStatus = gson.fromJson(message, new TypeToken<BridgeStatusMessageDTO>() {
+        }.getType());
+        if (bridgeStatus.bridgeId == null) {
+            return;
+        }
+        if (BridgeStatusMessageDTO.STATUS_ONLINE.equals(bridgeStatus.status)) {
+            handler.updateBridgeStatus(bridgeStatus.bridgeId, true);
+        } else if (BridgeStatusMessageDTO.STATUS_OFFLINE.equals(bridgeStatus.status)) {
+            handler.updateBridgeStatus(bridgeStatus.bridgeId, false);
+        } else {
+            logger.debug("{} Skipping bridge status push message with status {}", config.lockId, bridgeStatus.status);
+        }
+    }
+
+    /**
+     * Called by the account handler when the online state of the Connect bridge serving this lock changes
+     *
+     * @param recovered true if the bridge was previously known to be offline and the lock details are not known to be
+     *            current
+     */
+    void onBridgeStatusChanged(boolean online, boolean recovered) {
+        if (!online) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, BRIDGE_OFFLINE_MESSAGE);
+        } else {
+            if (BRIDGE_OFFLINE_MESSAGE.equals(getThing().getStatusInfo().getDescription())) {
+                updateOnlineStatus(null);
+            }
+            if (recovered) {
+                // Lock state may have changed while the bridge was unreachable
+                logger.info("{} Connect bridge back online, refreshing lock details", config.lockId);
+                scheduler.execute(this::doPoll);
+            }
+        }
+    }
+
+    @Nullable
+    String getBridgeId() {
+        return bridgeId;
     }
 
     private void cancelUnlockedByUserFuture() {
@@ -403,28 +1219,33 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
         }
     }
 
-    private void handleRemoteEventPushMessage(JsonElement message, JsonElement eventType) {
+    /**
+     * @param current false if older state has been received already, then only the pending operation is completed
+     */
+    private void handleRemoteEventPushMessage(JsonElement message, JsonElement eventType, boolean current) {
         switch (eventType.getAsInt()) {
             case 1:
+                CompletableFuture<RemoteOperateLockResponse> operation = pendingOperation;
                 if (message.getAsJsonObject().get("error") != null) {
                     logger.debug("Ignoring error message from bridge: {}", message.getAsJsonObject().get("error"));
+                    if (operation != null) {
+                        operation.completeExceptionally(new RestCommunicationException(
+                                "Bridge reported error " + message.getAsJsonObject().get("error")));
+                    }
                 } else {
 
                     RemoteOperateLockResponse remoteEvent = gson.fromJson(message,
                             new TypeToken<RemoteOperateLockResponse>() {
                             }.getType());
-                    if (remoteEvent.info != null) {
-                        updateThingProperties(remoteEvent.info);
+                    if (current) {
+                        applyRemoteOperateResult(remoteEvent);
+                        if (remoteEvent.lockState != null) {
+                            recordCommandConfirmed(parseLockState(remoteEvent.lockState));
+                        }
                     }
-
-                    if (remoteEvent.lockState != null && !"kAugLockState_Unlocking".equals(remoteEvent.lockState)
-                            && !"kAugLockState_Locking".equals(remoteEvent.lockState)) {
-                        State lockState = parseLockState(remoteEvent.lockState);
-                        updateState(BindingConstants.CHANNEL_LOCK_STATE, lockState);
-
-                    }
-                    if (remoteEvent.doorState != null) {
-                        updateState(BindingConstants.CHANNEL_DOOR_STATE, parseDoorState(remoteEvent.doorState));
+                    if (operation != null && isTerminalLockState(remoteEvent.lockState)
+                            && isResultOfPendingOperation(remoteEvent)) {
+                        operation.complete(remoteEvent);
                     }
                 }
                 break;
@@ -434,6 +1255,70 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
         }
     }
 
+    /**
+     * @return true if the lock state is a final state of an operation, not a transitional one such as unlocking
+     */
+    private static boolean isTerminalLockState(@Nullable String lockState) {
+        if (lockState == null) {
+            return false;
+        }
+        switch (lockState) {
+            case "locked":
+            case "unlocked":
+            case "unlatched":
+            case "jammed":
+            case "kAugLockState_Locked":
+            case "kAugLockState_Unlocked":
+            case "kAugLockState_Unlatched":
+            case "kAugLockState_Jammed":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return true unless the event is known to be caused by another operation, such as one by another user
+     */
+    private boolean isResultOfPendingOperation(RemoteOperateLockResponse event) {
+        RemoteOperateLockResponse.Info info = event.info;
+        if (info == null) {
+            return true;
+        }
+        String action = pendingAction;
+        if (info.action != null && action != null && !info.action.equals(action)) {
+            return false;
+        }
+        String transactionId = pendingTransactionId;
+        return info.context == null || info.context.transactionId == null || transactionId == null
+                || info.context.transactionId.equals(transactionId);
+    }
+
+    /**
+     * Update channels and properties from a remote operation result, either the response of the remoteoperate call or
+     * the corresponding push event
+     */
+    private void applyRemoteOperateResult(RemoteOperateLockResponse result) {
+        if (result.info != null) {
+            updateThingProperties(result.info);
+            updateSignalStrength(result.info);
+            if (bridgeId == null && result.info.bridgeId != null) {
+                bridgeId = result.info.bridgeId;
+            }
+        }
+
+        if (result.lockState != null && !"kAugLockState_Unlocking".equals(result.lockState)
+                && !"kAugLockState_Locking".equals(result.lockState)) {
+            State lockState = parseLockState(result.lockState);
+            updateLockState(lockState);
+            recordConfirmedState(System.currentTimeMillis());
+        }
+        if (result.doorState != null) {
+            updateDoorState(parseDoorState(result.doorState));
+        }
+        saveSnapshot();
+    }
+
     private State parseLockState(String stateString) {
         State state = UnDefType.UNDEF;
         switch (stateString) {
@@ -498,7 +1383,7 @@ public class AugustLockHandler extends BaseThingHandler implements PubNubListene
 
     private void parseUserMap(GetLockResponse lock) {
         if (lock.userList != null) {
-            lock.userList.loaded.forEach(
+            lock.userList.loaded.stream().filter(user -> user.userID != null).forEach(
                     user -> userIdToName.put(user.userID, String.format("%s %s", user.firstName, user.lastName)));
         }
     }
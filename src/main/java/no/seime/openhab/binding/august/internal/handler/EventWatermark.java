@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.time.ZonedDateTime;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The {@link EventWatermark} keeps the high-water marks of the state events applied to a lock, so redelivered push
+ * messages and REST responses older than the current state are not applied. Timestamps use PubNub timetoken units,
+ * 100ns since epoch. Push timetokens are publish times while REST timestamps are the time of the state change, taken
+ * from different clocks. Each source has its own high-water mark, and a REST response is also discarded if it is older
+ * than the last push message by more than {@link #CLOCK_SKEW_MARGIN}.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class EventWatermark {
+
+    /**
+     * Timestamp of events with unknown ordering, these are always accepted
+     */
+    public static final long UNKNOWN = 0;
+
+    /**
+     * Margin for clock differences between PubNub and the lock status timestamps, 5 seconds in timetoken units
+     */
+    public static final long CLOCK_SKEW_MARGIN = 5 * 10_000_000L;
+
+    public enum Source {
+        PUSH,
+        REST
+    }
+
+    public enum Result {
+        ACCEPTED,
+        DUPLICATE,
+        STALE
+    }
+
+    private long pushHighWaterMark = UNKNOWN;
+
+    private long restHighWaterMark = UNKNOWN;
+
+    private long duplicateCount = 0;
+
+    private long staleCount = 0;
+
+    /**
+     * Check an event against the high-water mark of its source. A REST response with the same timestamp as the
+     * previous one is accepted, as polling the same unchanged state is normal, but not one older than the last push
+     * message
+     */
+    public synchronized Result offer(Source source, long timestamp) {
+        long highWaterMark = source == Source.PUSH ? pushHighWaterMark : restHighWaterMark;
+        if (timestamp == UNKNOWN) {
+            return Result.ACCEPTED;
+        } else if (timestamp == highWaterMark && source == Source.PUSH) {
+            duplicateCount++;
+            return Result.DUPLICATE;
+        } else if (timestamp < highWaterMark || (source == Source.REST && pushHighWaterMark != UNKNOWN
+                && timestamp < pushHighWaterMark - CLOCK_SKEW_MARGIN)) {
+            staleCount++;
+            return Result.STALE;
+        } else {
+            if (source == Source.PUSH) {
+                pushHighWaterMark = timestamp;
+            } else {
+                restHighWaterMark = timestamp;
+            }
+            return Result.ACCEPTED;
+        }
+    }
+
+    public synchronized long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    public synchronized long getStaleCount() {
+        return staleCount;
+    }
+
+    /**
+     * Convert a REST status timestamp to timetoken units
+     */
+    public static long toTimetoken(@Nullable ZonedDateTime timestamp) {
+        if (timestamp == null) {
+            return UNKNOWN;
+        }
+        return timestamp.toInstant().getEpochSecond() * 10_000_000L + timestamp.getNano() / 100;
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.io.IOException;
+import java.util.Base64;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.storage.Storage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import no.seime.openhab.binding.august.internal.model.LockSnapshot;
+
+/**
+ * The {@link LockSnapshotStore} persists {@link LockSnapshot}s in the storage of the account, CBOR encoded.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class LockSnapshotStore {
+
+    public static final String STORAGE_KEY_PREFIX = "LOCK_SNAPSHOT_";
+
+    private final Logger logger = LoggerFactory.getLogger(LockSnapshotStore.class);
+
+    private final ObjectMapper mapper = new CBORMapper();
+
+    private final Storage<String> storage;
+
+    public LockSnapshotStore(Storage<String> storage) {
+        this.storage = storage;
+    }
+
+    public void save(String lockId, LockSnapshot snapshot) {
+        try {
+            byte[] encoded = mapper.writeValueAsBytes(snapshot);
+            storage.put(STORAGE_KEY_PREFIX + lockId, Base64.getEncoder().encodeToString(encoded));
+        } catch (IOException e) {
+            logger.warn("{} Error saving lock snapshot: {}", lockId, e.getMessage());
+        }
+    }
+
+    public @Nullable LockSnapshot load(String lockId) {
+        String encoded = storage.get(STORAGE_KEY_PREFIX + lockId);
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return mapper.readValue(Base64.getDecoder().decode(encoded), LockSnapshot.class);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("{} Discarding unreadable lock snapshot: {}", lockId, e.getMessage());
+            remove(lockId);
+            return null;
+        }
+    }
+
+    public void remove(String lockId) {
+        storage.remove(STORAGE_KEY_PREFIX + lockId);
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.types.State;
+import org.openhab.core.types.UnDefType;
+
+/**
+ * The {@link LockStateCache} holds the last lock state reported by the cloud, whether from a push message, a poll or
+ * an operation response, and when it was received.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class LockStateCache {
+
+    private final LongSupplier clock;
+
+    private State lockState = UnDefType.UNDEF;
+
+    private long updatedMillis = 0;
+
+    public LockStateCache() {
+        this(System::currentTimeMillis);
+    }
+
+    LockStateCache(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public synchronized void update(State lockState) {
+        this.lockState = lockState;
+        updatedMillis = clock.getAsLong();
+    }
+
+    public synchronized State getLockState() {
+        return lockState;
+    }
+
+    /**
+     * @return true if a known lock state was received within the last maxAgeSeconds
+     */
+    public synchronized boolean isFresh(long maxAgeSeconds) {
+        return lockState != UnDefType.UNDEF && clock.getAsLong() - updatedMillis < maxAgeSeconds * 1000;
+    }
+}
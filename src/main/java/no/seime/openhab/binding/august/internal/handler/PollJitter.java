@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link PollJitter} spreads polls of many locks over time, so that locks started at the same time do not hit the
+ * API at the same time, and do not stay in phase afterwards.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public final class PollJitter {
+
+    // Spacing between initial polls of the locks of an account
+    public static final long INITIAL_POLL_SPACING_MILLIS = 1000;
+
+    public static final long MAX_INITIAL_POLL_SPREAD_MILLIS = 300_000;
+
+    // Periodic polls happen up to this fraction of the interval early
+    public static final double INTERVAL_JITTER = 0.1;
+
+    private PollJitter() {
+    }
+
+    /**
+     * @param minDelayMillis delay before the earliest initial poll
+     * @param lockCount number of locks in the account
+     * @return random delay before the initial poll of a lock, spread with
+     *         {@link #INITIAL_POLL_SPACING_MILLIS} per lock
+     */
+    public static long initialDelayMillis(long minDelayMillis, int lockCount) {
+        long spread = Math.min(MAX_INITIAL_POLL_SPREAD_MILLIS,
+                Math.max(0, lockCount - 1) * INITIAL_POLL_SPACING_MILLIS);
+        return minDelayMillis + random(spread);
+    }
+
+    /**
+     * @return interval shortened by a random amount of up to {@link #INTERVAL_JITTER} of it
+     */
+    public static long jitteredIntervalMillis(long intervalMillis) {
+        return (long) (intervalMillis * randomIntervalFactor());
+    }
+
+    /**
+     * @return random factor between 1 - {@link #INTERVAL_JITTER} and 1 to shorten an interval with
+     */
+    public static double randomIntervalFactor() {
+        return 1 - ThreadLocalRandom.current().nextDouble() * INTERVAL_JITTER;
+    }
+
+    private static long random(long bound) {
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+}
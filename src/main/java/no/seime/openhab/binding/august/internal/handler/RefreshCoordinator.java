@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.reflect.TypeToken;
+
+import no.seime.openhab.binding.august.internal.AugustException;
+import no.seime.openhab.binding.august.internal.comm.RestApiClient;
+import no.seime.openhab.binding.august.internal.dto.GetLockRequest;
+import no.seime.openhab.binding.august.internal.dto.GetLockResponse;
+import no.seime.openhab.binding.august.internal.handler.AdaptivePollInterval.Mode;
+import no.seime.openhab.binding.august.internal.model.Lock;
+
+/**
+ * The {@link RefreshCoordinator} schedules lock detail fetches for all locks of an account. Each cycle only locks that
+ * need it are fetched: locks flagged as changed by the lock list and locks whose details are older than their poll
+ * interval, which depends on the health of the push connection of the lock (see {@link AdaptivePollInterval}). A due
+ * poll is skipped if the lock state has been confirmed within the freshness target of the lock, but only while push is
+ * healthy. Without push, recent confirmations say nothing about changes since.
+ * Intervals are jittered so that locks drift out of phase. At most {@link #MAX_PARALLEL_REFRESHES} fetches run at the
+ * same time, and at most {@link #MAX_PARALLEL_REFRESHES_PER_BRIDGE} for locks behind the same Connect bridge.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshCoordinator {
+
+    public static final int MAX_PARALLEL_REFRESHES = 4;
+
+    public static final int MAX_PARALLEL_REFRESHES_PER_BRIDGE = 2;
+
+    public static final int CYCLE_SECONDS = 60;
+
+    private final Logger logger = LoggerFactory.getLogger(RefreshCoordinator.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    // Runs the blocking fetches, kept off the scheduler
+    private final Executor workerExecutor;
+
+    private final RestApiClient restApiClient;
+
+    private final Supplier<Collection<AugustLockHandler>> lockHandlers;
+
+    private final LongSupplier clock;
+
+    private final Set<String> flagged = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    // Poll interval factor per lock, jittered after each fetch
+    private final Map<String, Double> jitterFactors = new ConcurrentHashMap<>();
+
+    @Nullable
+    private ScheduledFuture<?> cycleFuture;
+
+    /**
+     * @param scheduler schedules the refresh cycles
+     * @param workerExecutor runs the fetches, should allow {@link #MAX_PARALLEL_REFRESHES} at the same time
+     */
+    public RefreshCoordinator(ScheduledExecutorService scheduler, Executor workerExecutor, RestApiClient restApiClient,
+            Supplier<Collection<AugustLockHandler>> lockHandlers) {
+        this(scheduler, workerExecutor, restApiClient, lockHandlers, System::currentTimeMillis);
+    }
+
+    RefreshCoordinator(ScheduledExecutorService scheduler, Executor workerExecutor, RestApiClient restApiClient,
+            Supplier<Collection<AugustLockHandler>> lockHandlers, LongSupplier clock) {
+        this.scheduler = scheduler;
+        this.workerExecutor = workerExecutor;
+        this.restApiClient = restApiClient;
+        this.lockHandlers = lockHandlers;
+        this.clock = clock;
+    }
+
+    public synchronized void start() {
+        stop();
+        cycleFuture = scheduler.scheduleWithFixedDelay(this::runCycle, CYCLE_SECONDS, CYCLE_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        ScheduledFuture<?> future = cycleFuture;
+        if (future != null) {
+            future.cancel(false);
+            cycleFuture = null;
+        }
+        flagged.clear();
+    }
+
+    /**
+     * Fetch details of a lock in the next cycle
+     */
+    public void flag(String lockId) {
+        flagged.add(lockId);
+    }
+
+    /**
+     * Flag locks that are new or changed in the lock list
+     */
+    public void flagChangedLocks(Map<String, Lock> previous, Map<String, Lock> current) {
+        current.forEach((lockId, lock) -> {
+            Lock old = previous.get(lockId);
+            if (old == null || !Objects.equals(old.getLockName(), lock.getLockName())
+                    || !Objects.equals(old.getHouseName(), lock.getHouseName())) {
+                flag(lockId);
+            }
+        });
+    }
+
+    /**
+     * Fetch details of all locks that need it
+     *
+     * @return number of locks fetched
+     */
+    int runCycle() {
+        long now = clock.getAsLong();
+        List<AugustLockHandler> due = lockHandlers.get().stream().filter(h -> !inProgress.contains(h.getLockId()))
+                .filter(h -> isDue(h, now)).filter(h -> inProgress.add(h.getLockId())).collect(Collectors.toList());
+        if (due.isEmpty()) {
+            logger.debug("No lock details to refresh");
+            return 0;
+        }
+        logger.debug("Refreshing details of {} lock(s)", due.size());
+        Queue<Queue<AugustLockHandler>> lanes = new ConcurrentLinkedQueue<>(createLanes(due));
+        int workers = Math.min(MAX_PARALLEL_REFRESHES, lanes.size());
+        try {
+            for (int i = 0; i < workers; i++) {
+                workerExecutor.execute(() -> {
+                    Queue<AugustLockHandler> lane;
+                    while ((lane = lanes.poll()) != null) {
+                        drain(lane);
+                    }
+                });
+            }
+        } catch (RejectedExecutionException e) {
+            // Shutting down, locks not fetched by a started worker are fetched by a later cycle
+            logger.debug("Refresh worker rejected, account is disposed");
+            lanes.forEach(lane -> lane.forEach(h -> inProgress.remove(h.getLockId())));
+        }
+        return due.size();
+    }
+
+    /**
+     * Split locks into lanes fetched one lock at a time. Locks behind the same Connect bridge share
+     * {@link #MAX_PARALLEL_REFRESHES_PER_BRIDGE} lanes, other locks get a lane each.
+     */
+    static List<Queue<AugustLockHandler>> createLanes(List<AugustLockHandler> locks) {
+        List<Queue<AugustLockHandler>> lanes = new ArrayList<>();
+        Map<String, List<Queue<AugustLockHandler>>> bridgeLanes = new HashMap<>();
+        for (AugustLockHandler lock : locks) {
+            String bridgeId = lock.getBridgeId();
+            if (bridgeId == null) {
+                Queue<AugustLockHandler> lane = new ConcurrentLinkedQueue<>();
+                lane.add(lock);
+                lanes.add(lane);
+            } else {
+                List<Queue<AugustLockHandler>> forBridge = bridgeLanes.computeIfAbsent(bridgeId,
+                        k -> new ArrayList<>());
+                if (forBridge.size() < MAX_PARALLEL_REFRESHES_PER_BRIDGE) {
+                    Queue<AugustLockHandler> lane = new ConcurrentLinkedQueue<>();
+                    forBridge.add(lane);
+                    lanes.add(lane);
+                }
+                // Spread evenly over the lanes of the bridge
+                forBridge.stream().min(Comparator.comparingInt(Queue::size)).ifPresent(l -> l.add(lock));
+            }
+        }
+        return lanes;
+    }
+
+    private boolean isDue(AugustLockHandler handler, long now) {
+        String lockId = handler.getLockId();
+        if (flagged.remove(lockId)) {
+            return true;
+        }
+        long age = now - handler.getLastPollMillis();
+        double jitterFactor = jitterFactors.computeIfAbsent(lockId, k -> PollJitter.randomIntervalFactor());
+        if (age < handler.getPollIntervalMillis() * jitterFactor) {
+            return false;
+        }
+        if (handler.getPollMode() == Mode.PUSH && handler.isStateFresh(now)) {
+            // Polling would not give newer lock state than already received, changes since would have been pushed
+            handler.onPollSkipped();
+            jitterFactors.remove(lockId);
+            return false;
+        }
+        return true;
+    }
+
+    private void drain(Queue<AugustLockHandler> queue) {
+        AugustLockHandler handler;
+        while ((handler = queue.poll()) != null) {
+            String lockId = handler.getLockId();
+            try {
+                GetLockResponse lockDetails = restApiClient.sendRequest(new GetLockRequest(lockId),
+                        new TypeToken<GetLockResponse>() {
+                        }.getType());
+                handler.applyLockDetails(lockDetails);
+            } catch (AugustException e) {
+                logger.debug("{} Error refreshing lock details: {}", lockId, e.getMessage());
+                handler.onLockDetailsError(e);
+            } catch (RuntimeException e) {
+                logger.warn("{} Error refreshing lock details", lockId, e);
+            } finally {
+                jitterFactors.remove(lockId);
+                inProgress.remove(lockId);
+            }
+        }
+    }
+}
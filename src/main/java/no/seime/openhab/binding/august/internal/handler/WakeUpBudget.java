@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link WakeUpBudget} limits how often the lock radio is woken up through the bridge. It is a token bucket
+ * refilled at the configured number of wake-ups per hour, reduced when the lock battery runs low. Status queries
+ * require a token, while lock operations always go through but use up tokens.
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@NonNullByDefault
+public class WakeUpBudget {
+
+    /**
+     * Battery level from which the full budget is available. Below it the budget shrinks linearly
+     */
+    static final double FULL_BUDGET_BATTERY_LEVEL = 0.5;
+
+    private static final long MILLIS_PER_HOUR = 3_600_000;
+
+    private final LongSupplier clock;
+
+    private final int maxWakeUpsPerHour;
+
+    private double batteryLevel = 1.0;
+
+    private double tokens;
+
+    private long lastRefillMillis;
+
+    private long avoidedCount = 0;
+
+    /**
+     * @param maxWakeUpsPerHour wake-ups per hour with a good battery, 0 for no limit
+     */
+    public WakeUpBudget(int maxWakeUpsPerHour) {
+        this(maxWakeUpsPerHour, System::currentTimeMillis);
+    }
+
+    WakeUpBudget(int maxWakeUpsPerHour, LongSupplier clock) {
+        this.maxWakeUpsPerHour = maxWakeUpsPerHour;
+        this.clock = clock;
+        this.tokens = maxWakeUpsPerHour;
+        this.lastRefillMillis = clock.getAsLong();
+    }
+
+    /**
+     * @param batteryLevel battery level as reported by the lock, 0.0 - 1.0
+     */
+    public synchronized void setBatteryLevel(double batteryLevel) {
+        refill();
+        this.batteryLevel = Math.max(0, Math.min(1, batteryLevel));
+        tokens = Math.min(tokens, getWakeUpsPerHour());
+    }
+
+    /**
+     * @return the number of wake-ups per hour allowed at the current battery level, never less than 1
+     */
+    public synchronized int getWakeUpsPerHour() {
+        double scale = Math.min(1.0, batteryLevel / FULL_BUDGET_BATTERY_LEVEL);
+        return Math.max(1, (int) Math.round(maxWakeUpsPerHour * scale));
+    }
+
+    /**
+     * Take a token for an optional wake-up, like a status query
+     *
+     * @return true if the wake-up is within budget. If not, it is counted as avoided
+     */
+    public synchronized boolean tryAcquire() {
+        if (maxWakeUpsPerHour <= 0) {
+            return true;
+        }
+        refill();
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        avoidedCount++;
+        return false;
+    }
+
+    /**
+     * Register a wake-up that is performed regardless of budget, like a lock operation
+     */
+    public synchronized void consume() {
+        if (maxWakeUpsPerHour > 0) {
+            refill();
+            tokens = Math.max(0, tokens - 1);
+        }
+    }
+
+    public synchronized long getAvoidedCount() {
+        return avoidedCount;
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        int perHour = getWakeUpsPerHour();
+        tokens = Math.min(perHour, tokens + (now - lastRefillMillis) * (double) perHour / MILLIS_PER_HOUR);
+        lastRefillMillis = now;
+    }
+}
@@ -12,29 +12,79 @@
  */
 package no.seime.openhab.binding.august.internal.model;
 
+import java.util.Objects;
+
 import no.seime.openhab.binding.august.internal.dto.LockDTO;
 
 /**
- * The {@link Lock} represents a simplified view of a lock, used for discovery
+ * The {@link Lock} represents a simplified view of a lock, as listed for the account. Used for discovery and for
+ * initializing locks before their details are fetched
  *
  * @author Arne Seime - Initial contribution
  */
 public class Lock {
 
+    private final String lockId;
+
     private final String houseName;
 
+    private final String houseId;
+
     private final String lockName;
 
-    public Lock(LockDTO dto) {
+    private final String macAddress;
+
+    private final String userType;
+
+    public Lock(String lockId, LockDTO dto) {
+        this.lockId = lockId;
         this.houseName = dto.houseName;
+        this.houseId = dto.houseId;
         this.lockName = dto.lockName;
+        this.macAddress = dto.macAddress;
+        this.userType = dto.userType;
+    }
+
+    public String getLockId() {
+        return lockId;
     }
 
     public String getHouseName() {
         return houseName;
     }
 
+    public String getHouseId() {
+        return houseId;
+    }
+
     public String getLockName() {
         return lockName;
     }
+
+    public String getMacAddress() {
+        return macAddress;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Lock)) {
+            return false;
+        }
+        Lock other = (Lock) o;
+        return lockId.equals(other.lockId) && Objects.equals(houseName, other.houseName)
+                && Objects.equals(houseId, other.houseId) && Objects.equals(lockName, other.lockName)
+                && Objects.equals(macAddress, other.macAddress) && Objects.equals(userType, other.userType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(lockId, houseName, houseId, lockName, macAddress, userType);
+    }
 }
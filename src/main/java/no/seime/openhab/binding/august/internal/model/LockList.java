@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.model;
+
+import java.util.Map;
+
+/**
+ * The {@link LockList} is an immutable snapshot of the locks listed for an account. The version is increased each time
+ * the listed locks change, so readers can tell whether anything changed since the snapshot they saw last
+ *
+ * @author Arne Seime - Initial contribution
+ */
+public class LockList {
+
+    public static final LockList EMPTY = new LockList(0, 0, Map.of());
+
+    private final long version;
+
+    private final long fetchedMillis;
+
+    private final Map<String, Lock> locks;
+
+    private LockList(long version, long fetchedMillis, Map<String, Lock> locks) {
+        this.version = version;
+        this.fetchedMillis = fetchedMillis;
+        this.locks = Map.copyOf(locks);
+    }
+
+    /**
+     * @return snapshot of the fetched locks, with the version increased only if they differ from this snapshot
+     */
+    public LockList next(Map<String, Lock> fetchedLocks, long fetchedMillis) {
+        return new LockList(locks.equals(fetchedLocks) ? version : version + 1, fetchedMillis, fetchedLocks);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return time the locks were last fetched, 0 if never
+     */
+    public long getFetchedMillis() {
+        return fetchedMillis;
+    }
+
+    public Map<String, Lock> getLocks() {
+        return locks;
+    }
+}
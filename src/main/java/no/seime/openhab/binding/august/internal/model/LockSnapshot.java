@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The {@link LockSnapshot} is the last known state of a lock, persisted so that channels can be restored at startup
+ * before the lock is reached
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LockSnapshot {
+
+    /**
+     * Lock state channel value, ON or OFF. Null if unknown
+     */
+    public String lockState;
+
+    /**
+     * Door state channel value, OPEN or CLOSED. Null if unknown
+     */
+    public String doorState;
+
+    /**
+     * Battery level 0..1
+     */
+    public Double batteryPercentage;
+
+    /**
+     * User id to name
+     */
+    public Map<String, String> users = new HashMap<>();
+
+    /**
+     * Thing properties
+     */
+    public Map<String, String> properties = new HashMap<>();
+
+    /**
+     * Time the lock state was last confirmed by the lock, as of when the snapshot was saved
+     */
+    public long confirmedMillis;
+
+    /**
+     * @return true if the other snapshot holds the same state, not considering the confirmation time
+     */
+    public boolean hasSameState(LockSnapshot other) {
+        return Objects.equals(lockState, other.lockState) && Objects.equals(doorState, other.doorState)
+                && Objects.equals(batteryPercentage, other.batteryPercentage) && users.equals(other.users)
+                && properties.equals(other.properties);
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class CoalescingCommandQueueTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+
+    private final CoalescingCommandQueue<String> queue = new CoalescingCommandQueue<>(scheduler, 200, command -> {
+        sent.add(command);
+        return CompletableFuture.completedFuture(null);
+    });
+
+    @AfterEach
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testOnlyLastCommandInWindowIsSent() throws InterruptedException {
+        queue.submit("ON");
+        queue.submit("OFF");
+        Thread.sleep(500);
+
+        assertEquals(List.of("OFF"), sent);
+    }
+
+    @Test
+    void testStatusDoesNotSupersedePendingCommand() throws InterruptedException {
+        queue.submit("ON");
+        assertFalse(queue.submitIfIdle("STATUS"));
+        Thread.sleep(500);
+
+        assertEquals(List.of("ON"), sent);
+        assertTrue(queue.submitIfIdle("STATUS"));
+        Thread.sleep(500);
+
+        assertEquals(List.of("ON", "STATUS"), sent);
+    }
+
+    @Test
+    void testNextCommandWaitsForCompletion() throws InterruptedException {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        CoalescingCommandQueue<String> asyncQueue = new CoalescingCommandQueue<>(scheduler, 0, command -> {
+            sent.add(command);
+            return "ON".equals(command) ? completion : CompletableFuture.completedFuture(null);
+        });
+
+        asyncQueue.submit("ON");
+        Thread.sleep(200);
+        asyncQueue.submit("OFF");
+        Thread.sleep(200);
+        assertEquals(List.of("ON"), sent);
+
+        completion.complete(null);
+        Thread.sleep(200);
+        assertEquals(List.of("ON", "OFF"), sent);
+    }
+
+    @Test
+    void testCancelDropsPendingCommand() throws InterruptedException {
+        queue.submit("ON");
+        queue.cancel();
+        Thread.sleep(500);
+
+        assertTrue(sent.isEmpty());
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class LatencyTrackerTest {
+
+    @Test
+    void testPercentiles() {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 100; i >= 1; i--) {
+            tracker.record(i);
+        }
+
+        assertEquals(1, tracker.getLatest());
+        assertEquals(50, tracker.getPercentile(50));
+        assertEquals(95, tracker.getPercentile(95));
+        assertEquals(100, tracker.getPercentile(100));
+    }
+
+    @Test
+    void testOldSamplesAreDropped() {
+        LatencyTracker tracker = new LatencyTracker(3);
+        tracker.record(1000);
+        tracker.record(1);
+        tracker.record(2);
+        tracker.record(3);
+
+        assertEquals(3, tracker.getPercentile(100));
+    }
+
+    @Test
+    void testEmpty() {
+        LatencyTracker tracker = new LatencyTracker();
+        assertFalse(tracker.hasSamples());
+        assertEquals(0, tracker.getPercentile(95));
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class RollingStatisticsTest {
+
+    @Test
+    void testStatisticsOverWindow() {
+        RollingStatistics statistics = new RollingStatistics(3);
+        statistics.record(-90);
+        statistics.record(-60);
+        statistics.record(-70);
+        statistics.record(-80);
+
+        assertEquals(-80, statistics.getLatest());
+        assertEquals(-80, statistics.getMin());
+        assertEquals(-60, statistics.getMax());
+        assertEquals(-70.0, statistics.getAverage(), 0.001);
+    }
+
+    @Test
+    void testEmpty() {
+        assertFalse(new RollingStatistics(3).hasSamples());
+    }
+}
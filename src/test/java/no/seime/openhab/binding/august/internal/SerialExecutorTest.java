@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class SerialExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    private final List<String> started = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testAsyncTaskBlocksQueueUntilCompleted() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool);
+        CompletableFuture<String> firstCompletion = new CompletableFuture<>();
+
+        CompletableFuture<String> first = executor.submit(() -> {
+            started.add("first");
+            return firstCompletion;
+        });
+        CompletableFuture<String> second = executor.submit(() -> {
+            started.add("second");
+            return CompletableFuture.completedFuture("second done");
+        });
+
+        Thread.sleep(200);
+        assertEquals(List.of("first"), started);
+        assertFalse(second.isDone());
+
+        firstCompletion.complete("first done");
+        assertEquals("first done", first.get(1, TimeUnit.SECONDS));
+        assertEquals("second done", second.get(1, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second"), started);
+    }
+
+    @Test
+    void testFailedAsyncTaskDoesNotBlockQueue() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool);
+
+        CompletableFuture<String> failed = executor
+                .submit(() -> CompletableFuture.failedFuture(new IllegalStateException("bridge in use")));
+        CompletableFuture<String> next = executor.submit(() -> CompletableFuture.completedFuture("done"));
+
+        assertEquals("done", next.get(1, TimeUnit.SECONDS));
+        assertTrue(failed.isCompletedExceptionally());
+    }
+
+    @Test
+    void testRejectedTaskDoesNotBlockQueue() {
+        SerialExecutor executor = new SerialExecutor(pool);
+        pool.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> started.add("rejected")));
+        assertTrue(executor.isIdle());
+        assertEquals(List.of(), started);
+    }
+
+    @Test
+    void testQueuedTasksFailWhenExecutorIsShutDown() throws Exception {
+        SerialExecutor executor = new SerialExecutor(pool);
+        CompletableFuture<String> firstCompletion = new CompletableFuture<>();
+
+        CompletableFuture<String> first = executor.submit(() -> firstCompletion);
+        CompletableFuture<String> second = executor.submit(() -> {
+            started.add("second");
+            return CompletableFuture.completedFuture("second done");
+        });
+        CompletableFuture<String> third = executor.submit(() -> CompletableFuture.completedFuture("third done"));
+
+        Thread.sleep(200);
+        pool.shutdown();
+        firstCompletion.complete("first done");
+
+        assertEquals("first done", first.get(1, TimeUnit.SECONDS));
+        ExecutionException secondFailure = assertThrows(ExecutionException.class,
+                () -> second.get(1, TimeUnit.SECONDS));
+        assertTrue(secondFailure.getCause() instanceof RejectedExecutionException);
+        assertTrue(third.isCompletedExceptionally());
+        assertTrue(executor.isIdle());
+        assertEquals(List.of(), started);
+    }
+
+    @Test
+    void testSubmitToShutDownExecutorFails() {
+        SerialExecutor executor = new SerialExecutor(pool);
+        pool.shutdown();
+
+        CompletableFuture<String> result = executor.submit(() -> CompletableFuture.completedFuture("done"));
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof RejectedExecutionException);
+        assertTrue(executor.isIdle());
+    }
+}
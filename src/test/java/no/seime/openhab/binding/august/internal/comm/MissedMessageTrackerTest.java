@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonPrimitive;
+import com.pubnub.api.models.consumer.history.PNFetchMessageItem;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class MissedMessageTrackerTest {
+
+    private final MissedMessageTracker tracker = new MissedMessageTracker();
+
+    @Test
+    void testOnlyMessagesAfterLastReceivedAreSelected() {
+        tracker.onMessageReceived("channel1", 1000);
+
+        List<PNFetchMessageItem> missed = tracker.selectMissed("channel1", items(1001, 999, 1000, 1002));
+
+        assertEquals(List.of(1001L, 1002L), timetokens(missed));
+        // Already replayed
+        assertEquals(List.of(), timetokens(tracker.selectMissed("channel1", items(1001, 1002))));
+    }
+
+    @Test
+    void testChannelIsCaughtUpFromConnectTime() {
+        tracker.onConnected("channel1", 1000);
+        tracker.onMessageReceived("channel2", 2000);
+        // Connecting again does not move back a channel that has received messages
+        tracker.onConnected("channel2", 1500);
+
+        Map<String, Long> since = tracker.getCatchUpPoints(List.of("channel1", "channel2", "channel3"));
+
+        assertEquals(Map.of("channel1", 1000L, "channel2", 2000L), since);
+        assertEquals(1001, MissedMessageTracker.getHistoryEnd(since));
+        assertEquals(List.of(1001L), timetokens(tracker.selectMissed("channel1", items(1000, 1001))));
+    }
+
+    @Test
+    void testChannelsAreTrackedSeparately() {
+        tracker.onMessageReceived("channel1", 1000);
+        tracker.onMessageReceived("channel2", 3000);
+
+        // History is fetched from the oldest channel, messages already received on the other are not replayed
+        assertEquals(List.of(2000L, 3500L), timetokens(tracker.selectMissed("channel1", items(2000, 3500))));
+        assertEquals(List.of(3500L), timetokens(tracker.selectMissed("channel2", items(2000, 3000, 3500))));
+    }
+
+    @Test
+    void testLiveMessageOvertakingHistoryIsNotReplayed() {
+        tracker.onMessageReceived("channel1", 1000);
+        tracker.onMessageReceived("channel1", 1002);
+
+        assertEquals(List.of(1003L), timetokens(tracker.selectMissed("channel1", items(1001, 1002, 1003))));
+    }
+
+    @Test
+    void testRemovedChannelIsNotCaughtUp() {
+        tracker.onMessageReceived("channel1", 1000);
+        tracker.remove("channel1");
+
+        assertTrue(tracker.getCatchUpPoints(List.of("channel1")).isEmpty());
+    }
+
+    @Test
+    void testTruncatedHistoryIsDetected() {
+        List<Long> timetokens = new ArrayList<>();
+        for (long i = 0; i < MissedMessageTracker.HISTORY_MAX_MESSAGES_PER_CHANNEL; i++) {
+            timetokens.add(1000 + i);
+        }
+        List<PNFetchMessageItem> full = timetokens.stream().map(MissedMessageTrackerTest::item)
+                .collect(Collectors.toList());
+
+        assertTrue(MissedMessageTracker.isTruncated(full));
+        assertFalse(MissedMessageTracker.isTruncated(full.subList(1, full.size())));
+    }
+
+    private static List<PNFetchMessageItem> items(long... timetokens) {
+        List<PNFetchMessageItem> items = new ArrayList<>();
+        for (long timetoken : timetokens) {
+            items.add(item(timetoken));
+        }
+        return items;
+    }
+
+    private static PNFetchMessageItem item(long timetoken) {
+        return PNFetchMessageItem.builder().message(new JsonPrimitive("message " + timetoken)).timetoken(timetoken)
+                .build();
+    }
+
+    private static List<Long> timetokens(List<PNFetchMessageItem> items) {
+        return items.stream().map(PNFetchMessageItem::getTimetoken).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class PubNubMessageDispatcherTest implements PubNubListener {
+
+    private final Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+
+    private final CountDownLatch slowChannelRelease = new CountDownLatch(1);
+
+    private final PubNubMessageDispatcher dispatcher = new PubNubMessageDispatcher(this,
+            Executors.newFixedThreadPool(2));
+
+    @AfterEach
+    public void shutdown() {
+        slowChannelRelease.countDown();
+        dispatcher.dispose();
+    }
+
+    @Test
+    void testMessagesOnSameChannelAreOrdered() throws InterruptedException {
+        slowChannelRelease.countDown();
+        for (int i = 0; i < 100; i++) {
+            dispatcher.onPushMessage("channel", new JsonPrimitive(i));
+        }
+
+        awaitMessages("channel", 100);
+        List<Integer> messages = received.get("channel");
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, messages.get(i));
+        }
+    }
+
+    @Test
+    void testSlowChannelDoesNotBlockOtherChannels() throws InterruptedException {
+        dispatcher.onPushMessage("slow", new JsonPrimitive(1));
+        dispatcher.onPushMessage("slow", new JsonPrimitive(2));
+        dispatcher.onPushMessage("fast", new JsonPrimitive(1));
+
+        awaitMessages("fast", 1);
+        assertTrue(received.getOrDefault("slow", List.of()).size() <= 1);
+
+        slowChannelRelease.countDown();
+        awaitMessages("slow", 2);
+    }
+
+    @Test
+    void testRemovedChannelKeepsOrderWhenSubscribedAgain() throws InterruptedException {
+        dispatcher.onPushMessage("slow", new JsonPrimitive(1));
+        dispatcher.removeChannel("slow");
+        dispatcher.onPushMessage("slow", new JsonPrimitive(2));
+
+        Thread.sleep(200);
+        assertTrue(received.getOrDefault("slow", List.of()).isEmpty());
+
+        slowChannelRelease.countDown();
+        awaitMessages("slow", 2);
+        assertEquals(List.of(1, 2), received.get("slow"));
+    }
+
+    private void awaitMessages(String channelName, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.getOrDefault(channelName, List.of()).size() < count) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for messages on " + channelName);
+            Thread.sleep(10);
+        }
+    }
+
+    @Override
+    public void onPushMessage(String channelName, JsonElement message) {
+        if ("slow".equals(channelName)) {
+            try {
+                slowChannelRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        received.computeIfAbsent(channelName, k -> new CopyOnWriteArrayList<>()).add(message.getAsInt());
+    }
+
+    @Override
+    public void onPubNubDisconnect(String channelName) {
+    }
+
+    @Override
+    public void onPubNubConnect(String channelName) {
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.pubnub.api.PubNub;
+import com.pubnub.api.builder.SubscribeBuilder;
+import com.pubnub.api.builder.UnsubscribeBuilder;
+import com.pubnub.api.callbacks.PNCallback;
+import com.pubnub.api.callbacks.SubscribeCallback;
+import com.pubnub.api.endpoints.channel_groups.AddChannelChannelGroup;
+import com.pubnub.api.endpoints.channel_groups.DeleteChannelGroup;
+import com.pubnub.api.enums.PNOperationType;
+import com.pubnub.api.enums.PNStatusCategory;
+import com.pubnub.api.models.consumer.PNStatus;
+import com.pubnub.api.models.consumer.channel_group.PNChannelGroupsAddChannelResult;
+
+import no.seime.openhab.binding.august.internal.config.EcoSystem;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+class PubNubMessageSubscriberChannelGroupTest {
+
+    private static final String GROUP = "openHAB-InstallID";
+
+    private @Mock PubNub pubNub;
+    private @Mock DeleteChannelGroup deleteChannelGroup;
+    private @Mock AddChannelChannelGroup addChannelChannelGroup;
+    private @Mock SubscribeBuilder subscribeBuilder;
+    private @Mock UnsubscribeBuilder unsubscribeBuilder;
+    private @Mock PubNubListener listener;
+
+    private PubNubMessageSubscriber subscriber;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(pubNub.deleteChannelGroup()).thenReturn(deleteChannelGroup);
+        when(deleteChannelGroup.channelGroup(GROUP)).thenReturn(deleteChannelGroup);
+        lenient().when(pubNub.addChannelsToChannelGroup()).thenReturn(addChannelChannelGroup);
+        lenient().when(addChannelChannelGroup.channelGroup(anyString())).thenReturn(addChannelChannelGroup);
+        lenient().when(addChannelChannelGroup.channels(anyList())).thenReturn(addChannelChannelGroup);
+        lenient().when(pubNub.subscribe()).thenReturn(subscribeBuilder);
+        lenient().when(subscribeBuilder.channels(anyList())).thenReturn(subscribeBuilder);
+        lenient().when(subscribeBuilder.channelGroups(anyList())).thenReturn(subscribeBuilder);
+        lenient().when(pubNub.unsubscribe()).thenReturn(unsubscribeBuilder);
+        lenient().when(unsubscribeBuilder.channelGroups(anyList())).thenReturn(unsubscribeBuilder);
+
+        subscriber = new PubNubMessageSubscriber(configuration -> pubNub);
+        subscriber.init("UserId", listener, EcoSystem.AUGUST, GROUP);
+    }
+
+    @Test
+    void testGroupIsResetAtInit() throws Exception {
+        verify(deleteChannelGroup).sync();
+    }
+
+    @Test
+    void testGroupIsSubscribedOnceChannelsAreAdded() {
+        subscriber.subscribe(List.of("channel1", "channel2"));
+
+        verify(addChannelChannelGroup).channels(List.of("channel1", "channel2"));
+        // Subscribed only once the channels are members
+        verify(subscribeBuilder, never()).execute();
+
+        completeAddToGroup(false);
+
+        verify(subscribeBuilder).channelGroups(List.of(GROUP));
+        verify(subscribeBuilder, never()).channels(anyList());
+        verify(subscribeBuilder).execute();
+    }
+
+    @Test
+    void testChannelAddedToConnectedGroupIsConnected() {
+        ArgumentCaptor<SubscribeCallback> callback = ArgumentCaptor.forClass(SubscribeCallback.class);
+        verify(pubNub).addListener(callback.capture());
+        subscriber.subscribe(List.of("channel1"));
+        completeAddToGroup(false);
+        callback.getValue().status(pubNub,
+                PNStatus.builder().category(PNStatusCategory.PNConnectedCategory)
+                        .operation(PNOperationType.PNSubscribeOperation).affectedChannels(List.of())
+                        .affectedChannelGroups(List.of(GROUP)).build());
+        verify(listener).onPubNubConnect("channel1");
+
+        subscriber.subscribe(List.of("channel2"));
+        completeAddToGroup(false);
+
+        // No connect status is issued by PubNub for new group members
+        verify(listener).onPubNubConnect("channel2");
+        verify(subscribeBuilder).execute();
+    }
+
+    @Test
+    void testFallbackToChannelSubscriptionIfGroupCannotBeUsed() {
+        subscriber.subscribe(List.of("channel1", "channel2"));
+        completeAddToGroup(true);
+
+        verify(subscribeBuilder).channels(List.of("channel1", "channel2"));
+        verify(subscribeBuilder, never()).channelGroups(anyList());
+        verify(subscribeBuilder).execute();
+
+        // Channels are subscribed to directly from now on
+        subscriber.subscribe(List.of("channel3"));
+        verify(subscribeBuilder).channels(List.of("channel3"));
+        verify(pubNub).addChannelsToChannelGroup();
+    }
+
+    @Test
+    void testFallbackUnsubscribesGroupAlreadySubscribed() {
+        subscriber.subscribe(List.of("channel1"));
+        completeAddToGroup(false);
+
+        subscriber.subscribe(List.of("channel2"));
+        completeAddToGroup(true);
+
+        verify(unsubscribeBuilder).channelGroups(List.of(GROUP));
+        verify(unsubscribeBuilder).execute();
+        verify(subscribeBuilder).channels(List.of("channel1", "channel2"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void completeAddToGroup(boolean error) {
+        ArgumentCaptor<PNCallback<PNChannelGroupsAddChannelResult>> callback = ArgumentCaptor
+                .forClass(PNCallback.class);
+        verify(addChannelChannelGroup, atLeastOnce()).async(callback.capture());
+        callback.getValue().onResponse(null, PNStatus.builder().error(error)
+                .operation(PNOperationType.PNAddChannelsToGroupOperation).build());
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.comm;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+class PubNubSubscriptionManagerTest {
+
+    private @Mock PubNubMessageSubscriber subscriber;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testRegistrationsAreBatched() {
+        when(subscriber.isInitialized()).thenReturn(true);
+        PubNubSubscriptionManager manager = new PubNubSubscriptionManager(subscriber, scheduler);
+
+        manager.addChannel("channel1");
+        manager.addChannel("channel2");
+        manager.addChannel("channel3");
+
+        verify(subscriber, timeout(2000)).subscribe(List.of("channel1", "channel2", "channel3"));
+    }
+
+    @Test
+    void testRegistrationsBeforeInitAreReplayed() throws InterruptedException {
+        when(subscriber.isInitialized()).thenReturn(false);
+        PubNubSubscriptionManager manager = new PubNubSubscriptionManager(subscriber, scheduler);
+
+        manager.addChannel("channel1");
+        manager.addChannel("channel2");
+        Thread.sleep(PubNubSubscriptionManager.DEBOUNCE_MILLIS * 2);
+        verify(subscriber, never()).subscribe(any());
+
+        when(subscriber.isInitialized()).thenReturn(true);
+        manager.onSubscriberInitialized();
+
+        verify(subscriber, timeout(2000)).subscribe(List.of("channel1", "channel2"));
+    }
+
+    @Test
+    void testAddThenRemoveWithinWindowIsNoop() throws InterruptedException {
+        PubNubSubscriptionManager manager = new PubNubSubscriptionManager(subscriber, scheduler);
+
+        manager.addChannel("channel1");
+        manager.removeChannel("channel1");
+        Thread.sleep(PubNubSubscriptionManager.DEBOUNCE_MILLIS * 2);
+
+        verify(subscriber, never()).subscribe(any());
+        verify(subscriber, never()).unsubscribe(any());
+    }
+}
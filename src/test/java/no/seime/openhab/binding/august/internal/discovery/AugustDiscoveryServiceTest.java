@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.discovery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.core.config.discovery.DiscoveryResult;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingUID;
+
+import no.seime.openhab.binding.august.internal.BindingConstants;
+import no.seime.openhab.binding.august.internal.dto.LockDTO;
+import no.seime.openhab.binding.august.internal.handler.AugustAccountHandler;
+import no.seime.openhab.binding.august.internal.model.Lock;
+import no.seime.openhab.binding.august.internal.model.LockList;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+class AugustDiscoveryServiceTest {
+
+    private static final ThingUID ACCOUNT_UID = new ThingUID("august:account:thinguid");
+
+    private @Mock AugustAccountHandler accountHandler;
+    private @Mock Bridge bridge;
+
+    private final List<ThingUID> discovered = new ArrayList<>();
+
+    private final List<ThingUID> removed = new ArrayList<>();
+
+    private AugustDiscoveryService discoveryService;
+
+    @BeforeEach
+    public void setUp() {
+        when(accountHandler.getThing()).thenReturn(bridge);
+        when(bridge.getUID()).thenReturn(ACCOUNT_UID);
+
+        discoveryService = new AugustDiscoveryService(accountHandler) {
+            @Override
+            protected void thingDiscovered(DiscoveryResult discoveryResult) {
+                discovered.add(discoveryResult.getThingUID());
+            }
+
+            @Override
+            protected void thingRemoved(ThingUID thingUID) {
+                removed.add(thingUID);
+            }
+        };
+    }
+
+    @Test
+    void testBackgroundScanReportsOnlyChangedLocks() {
+        LockList locks = LockList.EMPTY.next(
+                Map.of("lock1", lock("lock1", "Front door"), "lock2", lock("lock2", "Back door")),
+                System.currentTimeMillis());
+        when(accountHandler.getLockList()).thenReturn(locks);
+
+        discoveryService.scan(false);
+        assertEquals(List.of(lockUID("lock1"), lockUID("lock2")), sorted(discovered));
+
+        // Unchanged lock list
+        discovered.clear();
+        discoveryService.scan(false);
+        assertEquals(List.of(), discovered);
+
+        // Renamed and removed locks
+        LockList changed = locks.next(Map.of("lock1", lock("lock1", "Main door")), System.currentTimeMillis());
+        when(accountHandler.getLockList()).thenReturn(changed);
+        discoveryService.scan(false);
+        assertEquals(List.of(lockUID("lock1")), discovered);
+        assertEquals(List.of(lockUID("lock2")), removed);
+    }
+
+    @Test
+    void testManualScanReportsAllLocks() {
+        LockList locks = LockList.EMPTY.next(
+                Map.of("lock1", lock("lock1", "Front door"), "lock2", lock("lock2", "Back door")),
+                System.currentTimeMillis());
+        when(accountHandler.getLockList()).thenReturn(locks);
+
+        discoveryService.scan(false);
+        discovered.clear();
+
+        // Locks already reported are reported again, as they may have been removed from the inbox since
+        discoveryService.startScan();
+        assertEquals(List.of(lockUID("lock1"), lockUID("lock2")), sorted(discovered));
+        assertEquals(List.of(), removed);
+    }
+
+    private static Lock lock(String lockId, String lockName) {
+        LockDTO dto = new LockDTO();
+        dto.lockName = lockName;
+        dto.houseName = "House";
+        return new Lock(lockId, dto);
+    }
+
+    private static ThingUID lockUID(String lockId) {
+        return new ThingUID(BindingConstants.THING_TYPE_LOCK, ACCOUNT_UID, lockId);
+    }
+
+    private static List<ThingUID> sorted(List<ThingUID> thingUIDs) {
+        List<ThingUID> sorted = new ArrayList<>(thingUIDs);
+        sorted.sort((a, b) -> a.getId().compareTo(b.getId()));
+        return sorted;
+    }
+}
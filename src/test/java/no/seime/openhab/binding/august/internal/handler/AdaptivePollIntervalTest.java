@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class AdaptivePollIntervalTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final AdaptivePollInterval interval = new AdaptivePollInterval(now::get);
+
+    @Test
+    void testPollRarelyWhilePushIsHealthy() {
+        interval.setPushConnected(true);
+        assertEquals(AdaptivePollInterval.Mode.PUSH, interval.getMode());
+        assertEquals(TimeUnit.SECONDS.toMillis(AdaptivePollInterval.PUSH_POLLING_SECONDS),
+                interval.getIntervalMillis());
+    }
+
+    @Test
+    void testBackOffWhilePushIsDisconnected() {
+        interval.setPushConnected(false);
+        assertEquals(AdaptivePollInterval.Mode.FALLBACK, interval.getMode());
+        assertEquals(TimeUnit.SECONDS.toMillis(60), interval.getIntervalMillis());
+        interval.onPoll();
+        assertEquals(TimeUnit.SECONDS.toMillis(120), interval.getIntervalMillis());
+        for (int i = 0; i < 20; i++) {
+            interval.onPoll();
+        }
+        assertEquals(TimeUnit.SECONDS.toMillis(AdaptivePollInterval.FALLBACK_MAX_SECONDS),
+                interval.getIntervalMillis());
+
+        // Backoff is reset when push recovers
+        interval.setPushConnected(true);
+        interval.getMode();
+        interval.setPushConnected(false);
+        assertEquals(TimeUnit.SECONDS.toMillis(60), interval.getIntervalMillis());
+    }
+
+    @Test
+    void testSilentPushFallsBackToPolling() {
+        interval.setPushConnected(true);
+        now.addAndGet(TimeUnit.SECONDS.toMillis(AdaptivePollInterval.PUSH_SILENCE_SECONDS));
+        assertEquals(AdaptivePollInterval.Mode.FALLBACK, interval.getMode());
+
+        interval.onPushActivity();
+        assertEquals(AdaptivePollInterval.Mode.PUSH, interval.getMode());
+    }
+}
@@ -19,12 +19,20 @@ import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.junit.jupiter.api.AfterEach;
@@ -38,12 +46,15 @@ import org.openhab.core.config.core.Configuration;
 import org.openhab.core.storage.Storage;
 import org.openhab.core.test.storage.VolatileStorage;
 import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingStatus;
 import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 
 import no.seime.openhab.binding.august.internal.AuthenticationStatus;
 import no.seime.openhab.binding.august.internal.GsonFactory;
@@ -154,6 +165,54 @@ class AugustAccountHandlerTest {
 
         Map<String, Lock> locks = accountHandler.getLocks();
         assertEquals(2, locks.size());
+        Lock lock = locks.get("LockId2");
+        assertEquals("LockId2", lock.getLockId());
+        assertEquals("11:11:11:11:11:11", lock.getMacAddress());
+        assertEquals("House-UUID-2", lock.getHouseId());
+    }
+
+    @Test
+    void testPushMessagesAreDeliveredAfterConfigurationUpdate() throws Exception {
+        // Setup account
+        final AccountConfiguration accountConfig = new AccountConfiguration();
+        accountConfig.email = "email@address.com";
+        accountConfig.phone = "+4700000000";
+        accountConfig.password = "password";
+        when(configuration.as(AccountConfiguration.class)).thenReturn(accountConfig);
+
+        preparePostNetworkResponse("/session", "/mock_responses/get_session_response.json", 200);
+        preparePostNetworkResponse("/validation/email", "/mock_responses/get_validation_code_response.json", 200);
+
+        when(bridge.getConfiguration()).thenReturn(configuration);
+        when(bridge.getUID()).thenReturn(new ThingUID("august:account:thinguid"));
+        lenient().when(bridge.getStatus()).thenReturn(ThingStatus.OFFLINE);
+
+        AugustAccountHandler accountHandler = new AugustAccountHandler(bridge, restApiClient, storage);
+        accountHandler.setCallback(mock(ThingHandlerCallback.class));
+        accountHandler.initialize();
+
+        assertAuthState(AuthenticationStatus.VALIDATION_REQUESTED);
+
+        preparePostNetworkResponse("/validate/email", "/mock_responses/validate_code_response.json", 200);
+        prepareGetNetworkResponse("/users/locks/mine", "/mock_responses/get_locks_response.json", 200);
+
+        // Entering the verification code disposes and initializes the handler
+        accountConfig.validationCode = "000000";
+        accountHandler.handleConfigurationUpdate(Map.of("validationCode", "000000"));
+
+        assertAuthState(AuthenticationStatus.VALIDATED);
+
+        AugustLockHandler lockHandler = mock(AugustLockHandler.class);
+        accountHandler.registerForEvents(lockHandler, "PubsubChannelUUID");
+        JsonObject message = new JsonObject();
+        accountHandler.getMessageDispatcher().onPushMessage("PubsubChannelUUID", message, 1L);
+
+        verify(lockHandler, timeout(5000)).onPushMessage(eq("PubsubChannelUUID"), eq(message), anyLong());
+
+        // Remote operations are run as well
+        assertEquals("done", accountHandler
+                .runOnBridge("BridgeId1", () -> CompletableFuture.completedFuture("done")).get(5, TimeUnit.SECONDS));
+        accountHandler.dispose();
     }
 
     @Test
@@ -13,26 +13,40 @@
 package no.seime.openhab.binding.august.internal.handler;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static no.seime.openhab.binding.august.internal.comm.RestApiClient.HEADER_ACCESS_TOKEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -47,6 +61,8 @@ import org.openhab.core.thing.Bridge;
 import org.openhab.core.thing.ChannelUID;
 import org.openhab.core.thing.Thing;
 import org.openhab.core.thing.ThingStatus;
+import org.openhab.core.thing.ThingStatusDetail;
+import org.openhab.core.thing.ThingStatusInfo;
 import org.openhab.core.thing.ThingUID;
 import org.openhab.core.thing.binding.ThingHandlerCallback;
 import org.openhab.core.thing.binding.builder.ChannelBuilder;
@@ -57,6 +73,7 @@ import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
 import no.seime.openhab.binding.august.internal.BindingConstants;
@@ -133,6 +150,13 @@ class AugustLockHandlerTest implements PubNubListener {
         when(lockHandler.getBridge()).thenReturn(bridge);
         when(bridge.getHandler()).thenReturn(accountHandler);
         when(accountHandler.getApiBridge()).thenReturn(restApiClient);
+        lenient().when(accountHandler.runOnBridge(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<CompletionStage<?>>> getArgument(1).get());
+        lenient().when(accountHandler.whenReady()).thenReturn(CompletableFuture.completedFuture(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable> getArgument(0).run();
+            return null;
+        }).when(accountHandler).runInitialPoll(any());
 
         storage = new VolatileStorage<>();
     }
@@ -199,10 +223,122 @@ class AugustLockHandlerTest implements PubNubListener {
 
         lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
 
+        // State from the operation response
+        verify(thingHandlerCallback, timeout(5000))
+                .stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
+
         lockHandler.onPushMessage("ignored", JsonParser
                 .parseString(getClasspathJSONContent("/mock_responses/pubnub/lock_status_unlocked_async.json")));
+        verify(thingHandlerCallback, times(2))
+                .stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
+    }
+
+    @Test
+    void testAsyncOperation() throws IOException, InterruptedException {
+        lockConfiguration.asyncOperations = true;
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+        preparePutNetworkResponse(
+                String.format("/remoteoperate/%s/%s?v=2.0.0", lockConfiguration.lockId,
+                        RemoteOperateLockRequest.Operation.UNLOCK.getUrlWord()),
+                "/mock_responses/remoteoperate_lock_response.json", 200);
+
+        lockHandler.initialize();
+
+        Thread.sleep(2000);
+        reset(thingHandlerCallback);
+
+        lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
+        Thread.sleep(1000);
+
+        // Result is only applied when delivered via push
+        verify(thingHandlerCallback, never())
+                .stateUpdated(eq(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE)), any());
+
+        JsonObject remoteEvent = JsonParser
+                .parseString(getClasspathJSONContent("/mock_responses/remoteoperate_lock_response.json"))
+                .getAsJsonObject();
+        remoteEvent.addProperty("remoteEvent", 1);
+        lockHandler.onPushMessage("ignored", remoteEvent);
+
+        verify(thingHandlerCallback).stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE),
+                OnOffType.OFF);
+    }
+
+    @Test
+    void testAsyncOperationIsNotCompletedByTransitionalState() throws IOException, InterruptedException {
+        lockConfiguration.asyncOperations = true;
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+        String unlockUrl = String.format("/remoteoperate/%s/%s?v=2.0.0", lockConfiguration.lockId,
+                RemoteOperateLockRequest.Operation.UNLOCK.getUrlWord());
+        String lockUrl = String.format("/remoteoperate/%s/%s?v=2.0.0", lockConfiguration.lockId,
+                RemoteOperateLockRequest.Operation.LOCK.getUrlWord());
+        preparePutNetworkResponse(unlockUrl, "/mock_responses/remoteoperate_lock_response.json", 200);
+        preparePutNetworkResponse(lockUrl, "/mock_responses/remoteoperate_lock_response.json", 200);
+
+        lockHandler.initialize();
+        Thread.sleep(2000);
+
+        lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
+        Thread.sleep(1000);
+        WireMock.verify(1, putRequestedFor(urlEqualTo(unlockUrl)));
+
+        // Bolt still moving, for the same transaction
+        JsonObject unlocking = JsonParser.parseString(getClasspathJSONContent("/mock_responses/event_unlock.json"))
+                .getAsJsonObject();
+        unlocking.getAsJsonObject("info").getAsJsonObject("context").addProperty("transactionID", "WiGJ4sHhnk");
+        lockHandler.onPushMessage("ignored", unlocking);
+
+        lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.ON);
+        Thread.sleep(1000);
+        // Next operation waits for the unlock to complete
+        WireMock.verify(0, putRequestedFor(urlEqualTo(lockUrl)));
+
+        JsonObject unlocked = JsonParser
+                .parseString(getClasspathJSONContent("/mock_responses/remoteoperate_lock_response.json"))
+                .getAsJsonObject();
+        unlocked.addProperty("remoteEvent", 1);
+        lockHandler.onPushMessage("ignored", unlocked);
+        Thread.sleep(1000);
+
+        WireMock.verify(1, putRequestedFor(urlEqualTo(lockUrl)));
+    }
+
+    @Test
+    void testRestStatusOlderThanPushIsNotApplied() throws IOException, InterruptedException {
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+
+        lockHandler.initialize();
+        Thread.sleep(2000);
+
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(
+                        getClasspathJSONContent("/mock_responses/pubnub/lock_status_unlocked_async.json")),
+                System.currentTimeMillis() * 10_000);
         verify(thingHandlerCallback).stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE),
                 OnOffType.OFF);
+        reset(thingHandlerCallback);
+
+        // Lock details report the older locked state
+        lockHandler.doPoll();
+
+        verify(thingHandlerCallback, never()).stateUpdated(
+                new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.ON);
+    }
+
+    @Test
+    void testRedundantLockOperationIsSkipped() throws IOException, InterruptedException {
+        lockConfiguration.skipRedundantOperations = true;
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+
+        lockHandler.initialize();
+
+        Thread.sleep(2000);
+
+        // Lock is reported as locked
+        lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.ON);
+        Thread.sleep(1000);
+
+        WireMock.verify(0, putRequestedFor(anyUrl()));
     }
 
     @Test
@@ -293,6 +429,119 @@ class AugustLockHandlerTest implements PubNubListener {
         verifyChannelUpdates(OnOffType.ON, OpenClosedType.CLOSED, null);
     }
 
+    @Test
+    void testDuplicateAndStalePushMessagesAreDiscarded() throws IOException, InterruptedException {
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+
+        lockHandler.initialize();
+
+        Thread.sleep(2000);
+
+        // Timetokens newer than the status timestamp of the polled lock
+        long timetoken = 30000000000000000L;
+        ChannelUID lockStateChannel = new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE);
+
+        Mockito.reset(thingHandlerCallback);
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(getClasspathJSONContent("/mock_responses/pubnub/5_door_open.json")), timetoken);
+        verify(thingHandlerCallback).stateUpdated(lockStateChannel, OnOffType.OFF);
+
+        // Redelivered message
+        Mockito.reset(thingHandlerCallback);
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(getClasspathJSONContent("/mock_responses/pubnub/5_door_open.json")), timetoken);
+        verify(thingHandlerCallback, never()).stateUpdated(eq(lockStateChannel), any());
+
+        // Message older than current state
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(getClasspathJSONContent("/mock_responses/pubnub/3_manual_lock.json")),
+                timetoken - 1);
+        verify(thingHandlerCallback, never()).stateUpdated(eq(lockStateChannel), any());
+    }
+
+    @Test
+    void testLockDetailsAreNotFetchedUntilAccountIsReady() throws IOException, InterruptedException {
+        CompletableFuture<Void> accountReady = new CompletableFuture<>();
+        when(accountHandler.whenReady()).thenReturn(accountReady);
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+
+        lockHandler.initialize();
+        Thread.sleep(2000);
+
+        WireMock.verify(0, getRequestedFor(urlEqualTo("/locks/" + lockConfiguration.lockId)));
+
+        accountReady.complete(null);
+
+        verify(thingHandlerCallback, timeout(5000))
+                .stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.ON);
+        Thread.sleep(1000);
+        WireMock.verify(1, getRequestedFor(urlEqualTo("/locks/" + lockConfiguration.lockId)));
+    }
+
+    @Test
+    void testLockWithoutAccountHandlerIsOffline() throws IOException, InterruptedException {
+        // Account handler only available at the second initialization
+        when(bridge.getHandler()).thenReturn(null, accountHandler);
+
+        lockHandler.initialize();
+
+        ArgumentCaptor<ThingStatusInfo> statuses = ArgumentCaptor.forClass(ThingStatusInfo.class);
+        verify(thingHandlerCallback, atLeastOnce()).statusUpdated(eq(thing), statuses.capture());
+        assertEquals(ThingStatus.OFFLINE, statuses.getValue().getStatus());
+        assertEquals(ThingStatusDetail.BRIDGE_UNINITIALIZED, statuses.getValue().getStatusDetail());
+
+        // Neither commands nor dispose may fail
+        lockHandler.handleCommand(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.OFF);
+        lockHandler.dispose();
+        verify(accountHandler, never()).deregisterForEvents(any());
+
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+        lockHandler.initialize();
+
+        verify(thingHandlerCallback, timeout(5000))
+                .stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE), OnOffType.ON);
+    }
+
+    @Test
+    void testLockStaysOfflineWhileConnectBridgeIsOffline() throws IOException, InterruptedException {
+        prepareGetNetworkResponse("/locks/" + lockConfiguration.lockId, "/mock_responses/get_lock_response.json", 200);
+
+        lockHandler.initialize();
+
+        Thread.sleep(2000);
+
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(getClasspathJSONContent("/mock_responses/pubnub/bridge_offline.json")));
+        verify(accountHandler).updateBridgeStatus("BridgeId1", false);
+
+        // Account handler notifies the locks behind the bridge
+        when(accountHandler.isBridgeOffline("BridgeId1")).thenReturn(true);
+        lockHandler.onBridgeStatusChanged(false, false);
+
+        // Neither a push reconnect, a poll nor the account coming online may report the lock online while the bridge
+        // is offline
+        reset(thingHandlerCallback);
+        lockHandler.onPubNubConnect("ignored");
+        lockHandler.doPoll();
+        lockHandler.bridgeStatusChanged(new ThingStatusInfo(ThingStatus.ONLINE, ThingStatusDetail.NONE, null));
+        ArgumentCaptor<ThingStatusInfo> statuses = ArgumentCaptor.forClass(ThingStatusInfo.class);
+        verify(thingHandlerCallback, atLeastOnce()).statusUpdated(eq(thing), statuses.capture());
+        assertTrue(statuses.getAllValues().stream().noneMatch(e -> e.getStatus() == ThingStatus.ONLINE));
+        assertEquals(AugustLockHandler.BRIDGE_OFFLINE_MESSAGE, statuses.getValue().getDescription());
+
+        lockHandler.onPushMessage("ignored",
+                JsonParser.parseString(getClasspathJSONContent("/mock_responses/pubnub/bridge_online.json")));
+        verify(accountHandler).updateBridgeStatus("BridgeId1", true);
+
+        // Lock details are fetched once when the bridge recovers, but not when reported online by lock details
+        when(accountHandler.isBridgeOffline("BridgeId1")).thenReturn(false);
+        int fetches = WireMock.findAll(getRequestedFor(urlEqualTo("/locks/" + lockConfiguration.lockId))).size();
+        lockHandler.onBridgeStatusChanged(true, false);
+        lockHandler.onBridgeStatusChanged(true, true);
+        Thread.sleep(1000);
+        WireMock.verify(fetches + 1, getRequestedFor(urlEqualTo("/locks/" + lockConfiguration.lockId)));
+    }
+
     private void verifyChannelUpdates(OnOffType lockState, OpenClosedType doorState, String unlockedByUser) {
         verify(thingHandlerCallback).stateUpdated(new ChannelUID(thing.getUID(), BindingConstants.CHANNEL_LOCK_STATE),
                 lockState);
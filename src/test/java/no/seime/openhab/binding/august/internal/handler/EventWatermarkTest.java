@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import no.seime.openhab.binding.august.internal.handler.EventWatermark.Result;
+import no.seime.openhab.binding.august.internal.handler.EventWatermark.Source;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class EventWatermarkTest {
+
+    private final EventWatermark watermark = new EventWatermark();
+
+    @Test
+    void testRedeliveredAndOldPushMessagesAreDiscarded() {
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.PUSH, 2000));
+        assertEquals(Result.DUPLICATE, watermark.offer(Source.PUSH, 2000));
+        assertEquals(Result.STALE, watermark.offer(Source.PUSH, 1000));
+        assertEquals(1, watermark.getDuplicateCount());
+        assertEquals(1, watermark.getStaleCount());
+    }
+
+    @Test
+    void testUnchangedRestStatusIsAccepted() {
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.REST, 2000));
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.REST, 2000));
+        assertEquals(Result.STALE, watermark.offer(Source.REST, 1000));
+        assertEquals(0, watermark.getDuplicateCount());
+    }
+
+    @Test
+    void testSourcesAreComparedWithinClockSkewMargin() {
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.PUSH, 3000));
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.REST, 2000));
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.PUSH, 3001));
+    }
+
+    @Test
+    void testRestOlderThanPushIsDiscarded() {
+        long pushTimetoken = 100 * EventWatermark.CLOCK_SKEW_MARGIN;
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.PUSH, pushTimetoken));
+        assertEquals(Result.STALE,
+                watermark.offer(Source.REST, pushTimetoken - EventWatermark.CLOCK_SKEW_MARGIN - 1));
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.REST, pushTimetoken - EventWatermark.CLOCK_SKEW_MARGIN));
+        // Push messages are not compared with REST responses
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.REST, pushTimetoken * 2));
+        assertEquals(Result.ACCEPTED, watermark.offer(Source.PUSH, pushTimetoken + 1));
+    }
+}
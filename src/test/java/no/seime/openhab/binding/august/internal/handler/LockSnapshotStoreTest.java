@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.test.storage.VolatileStorage;
+
+import no.seime.openhab.binding.august.internal.model.LockSnapshot;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class LockSnapshotStoreTest {
+
+    private final VolatileStorage<String> storage = new VolatileStorage<>();
+
+    private final LockSnapshotStore store = new LockSnapshotStore(storage);
+
+    @Test
+    void testSaveAndLoad() {
+        LockSnapshot snapshot = new LockSnapshot();
+        snapshot.lockState = "ON";
+        snapshot.doorState = "CLOSED";
+        snapshot.batteryPercentage = 0.75;
+        snapshot.users.put("userId", "First Last");
+        snapshot.properties.put("macAddress", "00:00:00:00:00:00");
+        snapshot.confirmedMillis = 1234;
+        store.save("lockId", snapshot);
+
+        LockSnapshot loaded = store.load("lockId");
+        assertNotNull(loaded);
+        assertEquals("ON", loaded.lockState);
+        assertEquals("CLOSED", loaded.doorState);
+        assertEquals(0.75, loaded.batteryPercentage);
+        assertEquals("First Last", loaded.users.get("userId"));
+        assertEquals("00:00:00:00:00:00", loaded.properties.get("macAddress"));
+        assertEquals(1234, loaded.confirmedMillis);
+
+        store.remove("lockId");
+        assertNull(store.load("lockId"));
+    }
+
+    @Test
+    void testUnreadableSnapshotIsDiscarded() {
+        storage.put(LockSnapshotStore.STORAGE_KEY_PREFIX + "lockId", "not cbor");
+        assertNull(store.load("lockId"));
+        assertNull(storage.get(LockSnapshotStore.STORAGE_KEY_PREFIX + "lockId"));
+    }
+}
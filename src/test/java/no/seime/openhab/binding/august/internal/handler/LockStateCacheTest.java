@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.types.UnDefType;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class LockStateCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private final LockStateCache cache = new LockStateCache(now::get);
+
+    @Test
+    void testEmptyCacheIsNotFresh() {
+        assertFalse(cache.isFresh(60));
+        assertEquals(UnDefType.UNDEF, cache.getLockState());
+    }
+
+    @Test
+    void testStateExpires() {
+        cache.update(OnOffType.ON);
+        assertTrue(cache.isFresh(60));
+
+        now.addAndGet(59_000);
+        assertTrue(cache.isFresh(60));
+
+        now.addAndGet(1_000);
+        assertFalse(cache.isFresh(60));
+        assertEquals(OnOffType.ON, cache.getLockState());
+    }
+
+    @Test
+    void testUnknownStateIsNotFresh() {
+        cache.update(UnDefType.UNDEF);
+        assertFalse(cache.isFresh(60));
+    }
+
+    @Test
+    void testZeroMaxAgeDisablesCache() {
+        cache.update(OnOffType.OFF);
+        assertFalse(cache.isFresh(0));
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import no.seime.openhab.binding.august.internal.AugustException;
+import no.seime.openhab.binding.august.internal.comm.RestApiClient;
+import no.seime.openhab.binding.august.internal.comm.RestCommunicationException;
+import no.seime.openhab.binding.august.internal.dto.GetLockResponse;
+import no.seime.openhab.binding.august.internal.handler.AdaptivePollInterval.Mode;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class RefreshCoordinatorTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1));
+
+    private final List<AugustLockHandler> handlers = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private RestApiClient restApiClient;
+
+    private RefreshCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() throws AugustException {
+        scheduler = Executors.newScheduledThreadPool(2);
+        restApiClient = mock(RestApiClient.class);
+        when(restApiClient.sendRequest(any(), any())).thenReturn(new GetLockResponse());
+        coordinator = new RefreshCoordinator(scheduler, scheduler, restApiClient, () -> handlers, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private AugustLockHandler addLock(String lockId, long lastRefreshAgeSeconds, boolean pushConnected) {
+        AugustLockHandler handler = mock(AugustLockHandler.class);
+        when(handler.getLockId()).thenReturn(lockId);
+        when(handler.getLastPollMillis())
+                .thenReturn(now.get() - TimeUnit.SECONDS.toMillis(lastRefreshAgeSeconds));
+        when(handler.getPollIntervalMillis()).thenReturn(TimeUnit.SECONDS.toMillis(pushConnected
+                ? AdaptivePollInterval.PUSH_POLLING_SECONDS : AdaptivePollInterval.FALLBACK_MIN_SECONDS));
+        when(handler.getPollMode()).thenReturn(pushConnected ? Mode.PUSH : Mode.FALLBACK);
+        handlers.add(handler);
+        return handler;
+    }
+
+    @Test
+    void testOnlyLocksInNeedOfRefreshAreFetched() {
+        AugustLockHandler fresh = addLock("fresh", 60, true);
+        AugustLockHandler stale = addLock("stale", AdaptivePollInterval.PUSH_POLLING_SECONDS, true);
+        AugustLockHandler pushDown = addLock("pushDown", AdaptivePollInterval.FALLBACK_MIN_SECONDS, false);
+        AugustLockHandler flagged = addLock("flagged", 60, true);
+        coordinator.flag("flagged");
+
+        assertEquals(3, coordinator.runCycle());
+
+        verify(stale, timeout(5000)).applyLockDetails(any());
+        verify(pushDown, timeout(5000)).applyLockDetails(any());
+        verify(flagged, timeout(5000)).applyLockDetails(any());
+        verify(fresh, never()).applyLockDetails(any());
+    }
+
+    @Test
+    void testPollIsSkippedIfStateIsFresh() {
+        AugustLockHandler handler = addLock("lock", AdaptivePollInterval.PUSH_POLLING_SECONDS, true);
+        when(handler.isStateFresh(anyLong())).thenReturn(true);
+
+        assertEquals(0, coordinator.runCycle());
+        verify(handler).onPollSkipped();
+        verify(handler, never()).applyLockDetails(any());
+    }
+
+    @Test
+    void testPollIsNotSkippedIfStateIsFreshWithoutPush() {
+        AugustLockHandler handler = addLock("lock", AdaptivePollInterval.FALLBACK_MIN_SECONDS, false);
+        when(handler.isStateFresh(anyLong())).thenReturn(true);
+
+        assertEquals(1, coordinator.runCycle());
+        verify(handler, timeout(5000)).applyLockDetails(any());
+        verify(handler, never()).onPollSkipped();
+    }
+
+    @Test
+    void testFlagIsConsumed() {
+        AugustLockHandler handler = addLock("lock", 60, true);
+        coordinator.flag("lock");
+
+        assertEquals(1, coordinator.runCycle());
+        verify(handler, timeout(5000)).applyLockDetails(any());
+
+        assertEquals(0, coordinator.runCycle());
+    }
+
+    @Test
+    void testLocksBehindSameBridgeShareLanes() {
+        List<AugustLockHandler> locks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            AugustLockHandler handler = addLock("bridged" + i, 0, true);
+            when(handler.getBridgeId()).thenReturn("bridge");
+            locks.add(handler);
+        }
+        locks.add(addLock("wifi1", 0, true));
+        locks.add(addLock("wifi2", 0, true));
+
+        List<Queue<AugustLockHandler>> lanes = RefreshCoordinator.createLanes(locks);
+
+        assertEquals(RefreshCoordinator.MAX_PARALLEL_REFRESHES_PER_BRIDGE + 2, lanes.size());
+        assertEquals(7, lanes.stream().mapToInt(Queue::size).sum());
+    }
+
+    @Test
+    void testErrorIsReportedToLock() throws AugustException {
+        AugustException error = new RestCommunicationException("error");
+        when(restApiClient.sendRequest(any(), any())).thenThrow(error);
+        AugustLockHandler handler = addLock("lock", AdaptivePollInterval.PUSH_POLLING_SECONDS, true);
+
+        coordinator.runCycle();
+
+        verify(handler, timeout(5000)).onLockDetailsError(error);
+        verify(handler, never()).applyLockDetails(any());
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class WakeUpBudgetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void testBudgetIsExhaustedAndRefilled() {
+        WakeUpBudget budget = new WakeUpBudget(4, now::get);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(budget.tryAcquire());
+        }
+        assertFalse(budget.tryAcquire());
+        assertEquals(1, budget.getAvoidedCount());
+
+        // One token per 15 minutes
+        now.addAndGet(15 * 60 * 1000);
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        assertEquals(2, budget.getAvoidedCount());
+    }
+
+    @Test
+    void testLowBatteryReducesBudget() {
+        WakeUpBudget budget = new WakeUpBudget(12, now::get);
+        budget.setBatteryLevel(0.8);
+        assertEquals(12, budget.getWakeUpsPerHour());
+        budget.setBatteryLevel(0.25);
+        assertEquals(6, budget.getWakeUpsPerHour());
+        budget.setBatteryLevel(0.01);
+        assertEquals(1, budget.getWakeUpsPerHour());
+    }
+
+    @Test
+    void testLockOperationsUseBudget() {
+        WakeUpBudget budget = new WakeUpBudget(2, now::get);
+        budget.consume();
+        budget.consume();
+        budget.consume();
+        assertFalse(budget.tryAcquire());
+    }
+
+    @Test
+    void testZeroMeansUnlimited() {
+        WakeUpBudget budget = new WakeUpBudget(0, now::get);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(budget.tryAcquire());
+        }
+        assertEquals(0, budget.getAvoidedCount());
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2023 Contributors to the Seime Openhab Addons project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package no.seime.openhab.binding.august.internal.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import no.seime.openhab.binding.august.internal.dto.LockDTO;
+
+/**
+ *
+ * @author Arne Seime - Initial contribution
+ */
+class LockListTest {
+
+    private static Lock lock(String lockId, String lockName) {
+        LockDTO dto = new LockDTO();
+        dto.lockName = lockName;
+        dto.houseName = "House";
+        return new Lock(lockId, dto);
+    }
+
+    @Test
+    void testVersionIncreasesOnlyWhenLocksChange() {
+        LockList first = LockList.EMPTY.next(Map.of("lockId", lock("lockId", "Front door")), 1000);
+        assertEquals(1, first.getVersion());
+
+        LockList unchanged = first.next(Map.of("lockId", lock("lockId", "Front door")), 2000);
+        assertEquals(1, unchanged.getVersion());
+        assertEquals(2000, unchanged.getFetchedMillis());
+
+        LockList renamed = unchanged.next(Map.of("lockId", lock("lockId", "Back door")), 3000);
+        assertEquals(2, renamed.getVersion());
+        assertEquals("Back door", renamed.getLocks().get("lockId").getLockName());
+    }
+
+    @Test
+    void testLocksCannotBeModified() {
+        LockList list = LockList.EMPTY.next(Map.of("lockId", lock("lockId", "Front door")), 1000);
+        assertThrows(UnsupportedOperationException.class, () -> list.getLocks().remove("lockId"));
+    }
+}